@@ -11,4 +11,5 @@ public class BrokerConfig {
     public String authtype;
     public SaslConfig sasl;
     public String securityProtocol;
+    public String rack;
 }
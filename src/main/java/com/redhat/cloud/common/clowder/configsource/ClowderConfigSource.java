@@ -1,32 +1,42 @@
 package com.redhat.cloud.common.clowder.configsource;
 
 import com.redhat.cloud.common.clowder.configsource.handlers.ClowderPropertyHandler;
+import com.redhat.cloud.common.clowder.configsource.utils.Diagnostics;
+import com.redhat.cloud.common.clowder.configsource.utils.SecretDirectory;
 import io.smallrye.config.ConfigValue;
 import org.eclipse.microprofile.config.spi.ConfigSource;
 import org.jboss.logging.Logger;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
-import static com.redhat.cloud.common.clowder.configsource.utils.CertUtils.createTempFile;
 import static com.redhat.cloud.common.clowder.configsource.utils.ComputedPropertiesUtils.PROPERTY_END;
 import static com.redhat.cloud.common.clowder.configsource.utils.ComputedPropertiesUtils.PROPERTY_START;
 import static com.redhat.cloud.common.clowder.configsource.utils.ComputedPropertiesUtils.getComputedProperties;
@@ -40,6 +50,7 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 public class ClowderConfigSource implements ConfigSource {
 
     public static final String CLOWDER_CONFIG_SOURCE = "ClowderConfigSource";
+    public static final String CLOWDER_RAW = "clowder.raw.";
     private static final String CLOWDER_CERTIFICATE_STORE_TYPE = "PKCS12";
     private static final int DEFAULT_PASSWORD_LENGTH = 33;
     private static final String PROPERTY_DEFAULT = ":";
@@ -48,9 +59,20 @@ public class ClowderConfigSource implements ConfigSource {
     private final ClowderConfig root;
     private final Map<String, ConfigValue> existingValues;
     private final List<ClowderPropertyHandler> handlers;
+    private final Map<String, String> rawValues;
+    // Read-only view, the provided properties are only added by the constructor
+    private final Set<String> propertyNames;
+    private final Diagnostics diagnostics = new Diagnostics(LOG);
 
-    private String trustStorePath;
-    private String trustStorePassword;
+    private record TrustStore(String path, String password) {
+    }
+
+    // Built once, concurrent readers wait for the one being built
+    private final AtomicReference<CompletableFuture<TrustStore>> trustStore = new AtomicReference<>();
+
+    // The lookups only look for a trace while an explain() is running, on any thread
+    private final AtomicInteger explaining = new AtomicInteger();
+    private final ThreadLocal<Trace> trace = new ThreadLocal<>();
 
     /**
      * <p>Constructor for ClowderConfigSource.</p>
@@ -60,37 +82,63 @@ public class ClowderConfigSource implements ConfigSource {
      * @param handlers
      */
     public ClowderConfigSource(ClowderConfig root, Map<String, ConfigValue> exProp, List<ClowderPropertyHandler> handlers) {
+        this(root, exProp, handlers, Map.of());
+    }
+
+    /**
+     * @param rawValues every field of the Clowder config, flattened to {@code clowder.raw.*} keys.
+     */
+    public ClowderConfigSource(ClowderConfig root, Map<String, ConfigValue> exProp, List<ClowderPropertyHandler> handlers,
+                               Map<String, String> rawValues) {
         this.root = root;
         this.existingValues = exProp;
         this.handlers = handlers;
+        this.rawValues = rawValues;
+        this.propertyNames = Collections.unmodifiableSet(existingValues.keySet());
+        for (String property : rawValues.keySet()) {
+            existingValues.putIfAbsent(property, null);
+        }
 
         // some handlers like KafkaSaslClowderPropertyHandler needs to populate extra properties that might
         // not be initially set by the users. So, we need to automatically expose these extra properties and
         // not overwrite them if it was already set by these users.
+        // The handlers tell whether they have a value without computing it, so that the temp
+        // files and trust stores are only created when the values are actually read.
         for (ClowderPropertyHandler handler : handlers) {
-            for (String property : handler.provides()) {
-                try {
-                    String value = getValue(property);
-                    if (value != null && !value.isBlank()) {
-                        existingValues.putIfAbsent(property, null);
-                    }
-                } catch (IllegalStateException ie) {
-                    LOG.debug(ie.getMessage());
+            for (String property : handler.provides(this)) {
+                switch (handler.availability(property)) {
+                    case AVAILABLE -> existingValues.putIfAbsent(property, null);
+                    case UNAVAILABLE -> LOG.debugf("Property %s is not available in the Clowder config", property);
+                    case UNKNOWN -> probe(property);
                 }
             }
         }
     }
 
+    private void probe(String property) {
+        try {
+            String value = getValue(property);
+            if (value != null && !value.isBlank()) {
+                existingValues.putIfAbsent(property, null);
+            }
+        } catch (IllegalStateException ie) {
+            LOG.debug(ie.getMessage());
+        }
+    }
+
     @Override
     public Map<String, String> getProperties() {
         Map<String,String> props = new HashMap<>();
         Set<Map.Entry<String, ConfigValue>> entries = existingValues.entrySet();
         for (Map.Entry<String,ConfigValue> entry : entries) {
             String newVal = getValue(entry.getKey());
-            if (newVal == null) {
+            // The provided properties are registered without a value
+            if (newVal == null && entry.getValue() != null) {
                 newVal = entry.getValue().getValue();
             }
-            props.put(entry.getKey(),newVal);
+            if (newVal != null) {
+                props.put(entry.getKey(), newVal);
+            }
         }
 
         return props;
@@ -98,7 +146,7 @@ public class ClowderConfigSource implements ConfigSource {
 
     @Override
     public Set<String> getPropertyNames() {
-        return existingValues.keySet();
+        return propertyNames;
     }
 
     @Override
@@ -117,15 +165,94 @@ public class ClowderConfigSource implements ConfigSource {
      */
     @Override
     public String getValue(String configKey) {
+        if (explaining.get() > 0) {
+            Trace current = trace.get();
+            if (current != null) {
+                return current.getValue(configKey);
+            }
+        }
+
+        return resolve(configKey, null);
+    }
+
+    private String resolve(String configKey, Trace current) {
+        if (configKey.startsWith(CLOWDER_RAW)) {
+            String raw = rawValues.get(configKey);
+            if (raw != null) {
+                if (current != null) {
+                    current.resolution = KeyExplanation.Resolution.RAW;
+                }
+                return raw;
+            }
+        }
+
         for (ClowderPropertyHandler handler : handlers) {
             if (handler.handles(configKey)) {
+                if (current != null) {
+                    current.resolution = KeyExplanation.Resolution.HANDLER;
+                    current.handler = handler.getClass().getName();
+                }
                 return handler.handle(configKey, this);
             }
         }
 
+        if (current != null) {
+            current.resolution = KeyExplanation.Resolution.EXISTING_VALUE;
+        }
         return getExistingValue(configKey);
     }
 
+    /**
+     * Looks the key up like {@link #getValue(String)} and tells how it was resolved: which handler
+     * served it, which values were looked up and expanded, and which secret files were written. The
+     * exception of a failed lookup is caught and reported in the explanation.
+     * <p>
+     * The files written by other threads during the lookup may be reported too.
+     */
+    public KeyExplanation explain(String configKey) {
+        Trace previous = trace.get();
+        Trace current = new Trace(configKey);
+        List<Path> filesBefore = SecretDirectory.getFiles();
+        trace.set(current);
+        explaining.incrementAndGet();
+        String value = null;
+        String error = null;
+        long start = System.nanoTime();
+        try {
+            value = getValue(configKey);
+        } catch (RuntimeException e) {
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+            current.resolution = KeyExplanation.Resolution.FAILED;
+        } finally {
+            explaining.decrementAndGet();
+            trace.set(previous);
+        }
+        long nanos = System.nanoTime() - start;
+
+        List<String> files = new ArrayList<>();
+        for (Path file : SecretDirectory.getFiles()) {
+            if (!filesBefore.contains(file) || file.toString().equals(value)) {
+                files.add(file.toString());
+            }
+        }
+
+        return current.build(value, error, files, nanos);
+    }
+
+    /**
+     * Explains every property of the source, in key order. The {@code clowder.raw.*} keys are left
+     * out, they are always served as is.
+     */
+    public List<KeyExplanation> explainAll() {
+        List<KeyExplanation> explanations = new ArrayList<>();
+        for (String property : getPropertyNames().stream().sorted().toList()) {
+            if (!property.startsWith(CLOWDER_RAW)) {
+                explanations.add(explain(property));
+            }
+        }
+        return explanations;
+    }
+
     @Override
     public String getName() {
         return CLOWDER_CONFIG_SOURCE;
@@ -135,33 +262,113 @@ public class ClowderConfigSource implements ConfigSource {
         return LOG;
     }
 
+    /**
+     * Logs the messages of the lookups once per config key, for the messages that would otherwise be
+     * logged on every lookup.
+     */
+    public Diagnostics getDiagnostics() {
+        return diagnostics;
+    }
+
     public String getExistingValue(String configKey) {
+        if (explaining.get() > 0) {
+            Trace current = trace.get();
+            if (current != null) {
+                return current.getExistingValue(configKey);
+            }
+        }
+
         return Optional.ofNullable(this.existingValues.get(configKey))
-                .map(c -> resolveValue(c.getValue()))
+                .map(c -> resolveValue(c.getValue(), null))
                 .orElse(null);
     }
 
     public String getTrustStorePassword() {
-        if (trustStorePassword == null) {
-            initializeTrustStoreCertificate();
-        }
-
-        return trustStorePassword;
+        return getTrustStore().password();
     }
 
     public String getTrustStorePath() {
-        if (trustStorePath == null) {
-            initializeTrustStoreCertificate();
-        }
-
-        return trustStorePath;
+        return getTrustStore().path();
     }
 
     public String getTrustStoreType() {
         return CLOWDER_CERTIFICATE_STORE_TYPE;
     }
 
-    private void initializeTrustStoreCertificate() {
+    /**
+     * Resolves every property of the source on the executor, so that the files and the trust store
+     * are written before the application reads them, possibly from an event loop. The failures are
+     * left to the actual reads.
+     */
+    public CompletableFuture<Void> warmUp(Executor executor) {
+        return CompletableFuture.runAsync(() -> {
+            long start = System.nanoTime();
+            for (String property : List.copyOf(getPropertyNames())) {
+                try {
+                    getValue(property);
+                } catch (RuntimeException e) {
+                    LOG.debugf("Warm-up of %s failed: %s", property, e.getMessage());
+                }
+            }
+            // The endpoints keys are usually looked up by name and not part of the property names
+            if (hasTlsEndpoint()) {
+                try {
+                    getTrustStore();
+                } catch (RuntimeException e) {
+                    LOG.debugf("Warm-up of the trust store failed: %s", e.getMessage());
+                }
+            }
+            LOG.debugf("Warmed up the Clowder config source in %d ms", (System.nanoTime() - start) / 1_000_000);
+        }, executor);
+    }
+
+    private boolean hasTlsEndpoint() {
+        if (root.tlsCAPath == null || root.tlsCAPath.isBlank()) {
+            return false;
+        }
+        return hasTlsPort(root.endpoints) || hasTlsPort(root.privateEndpoints);
+    }
+
+    private static boolean hasTlsPort(List<? extends EndpointConfig> endpoints) {
+        if (endpoints != null) {
+            for (EndpointConfig endpoint : endpoints) {
+                if (endpoint.tlsPort != null && endpoint.tlsPort != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private TrustStore getTrustStore() {
+        CompletableFuture<TrustStore> future = trustStore.get();
+        if (future == null) {
+            CompletableFuture<TrustStore> created = new CompletableFuture<>();
+            if (trustStore.compareAndSet(null, created)) {
+                try {
+                    created.complete(initializeTrustStoreCertificate());
+                } catch (RuntimeException e) {
+                    // The readers waiting for it get the failure, the next ones try again
+                    created.completeExceptionally(e);
+                    trustStore.compareAndSet(created, null);
+                }
+                future = created;
+            } else {
+                future = trustStore.get();
+                if (future == null) {
+                    return getTrustStore();
+                }
+            }
+        }
+
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    private TrustStore initializeTrustStoreCertificate() {
         ensureTlsCertPathIsPresent();
 
         try {
@@ -190,8 +397,8 @@ public class ClowderConfigSource implements ConfigSource {
             }
 
             char[] password = buildPassword(base64Certs.get(0));
-            this.trustStorePath = writeTruststore(truststore, password);
-            this.trustStorePassword = new String(password);
+            // The password is derived from the certificates, the file written for the same CA file can be reused
+            return new TrustStore(writeTruststore(certContent, truststore, password), new String(password));
         } catch (IOException ioe) {
             throw new IllegalStateException("Couldn't load the certificate, but we were requested a truststore", ioe);
         } catch (KeyStoreException kse) {
@@ -238,11 +445,11 @@ public class ClowderConfigSource implements ConfigSource {
         }
     }
 
-    private String writeTruststore(KeyStore keyStore, char[] password) {
+    private String writeTruststore(String certContent, KeyStore keyStore, char[] password) {
         try {
-            File file = createTempFile("truststore", ".trust");
-            keyStore.store(new FileOutputStream(file), password);
-            return file.getAbsolutePath();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            keyStore.store(out, password);
+            return SecretDirectory.write("truststore", ".trust", certContent.getBytes(UTF_8), out.toByteArray()).toAbsolutePath().toString();
         } catch (IOException | KeyStoreException | NoSuchAlgorithmException | CertificateException e) {
             throw new RuntimeException("Truststore creation failed", e);
         }
@@ -256,7 +463,7 @@ public class ClowderConfigSource implements ConfigSource {
         return password;
     }
 
-    private String resolveValue(String property) {
+    private String resolveValue(String property, Trace current) {
         if (property == null || property.isEmpty() || !hasComputedProperties(property)) {
             return property;
         }
@@ -270,18 +477,28 @@ public class ClowderConfigSource implements ConfigSource {
                 systemProperty = systemProperty.substring(0, splitPosition);
 
                 if (hasComputedProperties(value)) {
-                    value = resolveValue(value);
+                    value = resolveValue(value, current);
                 }
             }
 
+            String defaultValue = value;
             ConfigValue computedValue = existingValues.get(systemProperty);
+            // The raw keys are registered without a ConfigValue
+            String rawValue = computedValue == null && systemProperty.startsWith(CLOWDER_RAW) ? rawValues.get(systemProperty) : null;
             if (computedValue != null) {
                 value = computedValue.getValue();
+            } else if (rawValue != null) {
+                value = rawValue;
             } else {
                 // Check whether the system property is provided:
                 value = getPropertyFromSystem(systemProperty, value);
             }
 
+            if (current != null) {
+                current.expansions.add(new KeyExplanation.Expansion(rawSystemProperty, systemProperty,
+                        origin(systemProperty, computedValue != null || rawValue != null, defaultValue, value), value));
+            }
+
             if (value != null) {
                 property = property.replace(PROPERTY_START + rawSystemProperty + PROPERTY_END, value);
             }
@@ -289,4 +506,83 @@ public class ClowderConfigSource implements ConfigSource {
 
         return property;
     }
+
+    /**
+     * Where {@link ComputedPropertiesUtils#getPropertyFromSystem} found the value of a {@code ${}} expression.
+     */
+    private static KeyExplanation.Origin origin(String name, boolean property, String defaultValue, String value) {
+        if (property) {
+            return KeyExplanation.Origin.PROPERTY;
+        }
+        if (value == null) {
+            return KeyExplanation.Origin.UNRESOLVED;
+        }
+        String systemProperty = System.getProperty(name);
+        if (systemProperty != null) {
+            return systemProperty.isEmpty() ? KeyExplanation.Origin.DEFAULT : KeyExplanation.Origin.SYSTEM_PROPERTY;
+        }
+        String env = System.getenv(name);
+        return env == null || env.isEmpty() ? KeyExplanation.Origin.DEFAULT : KeyExplanation.Origin.ENVIRONMENT;
+    }
+
+    /**
+     * The steps of a lookup explained on the current thread. The nested lookups, e.g. a handler reading
+     * another key, are recorded in the explanation of the outer key.
+     */
+    private final class Trace {
+
+        private final String key;
+        private final List<KeyExplanation.Lookup> lookups = new ArrayList<>();
+        private final List<KeyExplanation.Expansion> expansions = new ArrayList<>();
+        private KeyExplanation.Resolution resolution;
+        private String handler;
+        private int depth;
+        private boolean ownExistingValueRead;
+        private String ownExistingValue;
+
+        Trace(String key) {
+            this.key = key;
+        }
+
+        String getValue(String configKey) {
+            if (depth == 0) {
+                depth++;
+                try {
+                    return resolve(configKey, this);
+                } finally {
+                    depth--;
+                }
+            }
+
+            long start = System.nanoTime();
+            depth++;
+            try {
+                return resolve(configKey, null);
+            } finally {
+                depth--;
+                lookups.add(new KeyExplanation.Lookup(configKey, false, System.nanoTime() - start));
+            }
+        }
+
+        String getExistingValue(String configKey) {
+            long start = System.nanoTime();
+            ConfigValue existing = existingValues.get(configKey);
+            String value = existing == null ? null : resolveValue(existing.getValue(), this);
+            lookups.add(new KeyExplanation.Lookup(configKey, true, System.nanoTime() - start));
+            if (depth == 1 && configKey.equals(key)) {
+                ownExistingValueRead = true;
+                ownExistingValue = value;
+            }
+            return value;
+        }
+
+        KeyExplanation build(String value, String error, List<String> files, long nanos) {
+            KeyExplanation.Resolution result = resolution;
+            if (result == KeyExplanation.Resolution.HANDLER && ownExistingValueRead && Objects.equals(value, ownExistingValue)) {
+                result = KeyExplanation.Resolution.HANDLER_FALLBACK;
+            }
+            return new KeyExplanation(key, value, result, handler, List.copyOf(lookups), List.copyOf(expansions),
+                    List.copyOf(files), error, nanos);
+        }
+    }
 }
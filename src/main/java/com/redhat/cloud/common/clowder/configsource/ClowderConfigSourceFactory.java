@@ -1,7 +1,9 @@
 package com.redhat.cloud.common.clowder.configsource;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.redhat.cloud.common.clowder.configsource.handlers.ClowderPropertyHandler;
 import com.redhat.cloud.common.clowder.configsource.handlers.EndpointsClowderPropertyHandler;
 import com.redhat.cloud.common.clowder.configsource.handlers.KafkaBootstrapServersClowderPropertyHandler;
@@ -11,10 +13,14 @@ import com.redhat.cloud.common.clowder.configsource.handlers.OptionalEndpointsCl
 import com.redhat.cloud.common.clowder.configsource.handlers.OptionalPrivateEndpointsClowderPropertyHandler;
 import com.redhat.cloud.common.clowder.configsource.handlers.PrivateEndpointsClowderPropertyHandler;
 import com.redhat.cloud.common.clowder.configsource.handlers.QuarkusDataSourceClowderPropertyHandler;
+import com.redhat.cloud.common.clowder.configsource.handlers.QuarkusKafkaStreamsClowderPropertyHandler;
 import com.redhat.cloud.common.clowder.configsource.handlers.QuarkusLogCloudWatchClowderPropertyHandler;
+import com.redhat.cloud.common.clowder.configsource.handlers.QuarkusManagementClowderPropertyHandler;
 import com.redhat.cloud.common.clowder.configsource.handlers.QuarkusRedisClowderPropertyHandler;
+import com.redhat.cloud.common.clowder.configsource.handlers.QuarkusTlsRegistryClowderPropertyHandler;
 import com.redhat.cloud.common.clowder.configsource.handlers.QuarkusUnleashClowderPropertyHandler;
 import com.redhat.cloud.common.clowder.configsource.handlers.WebPortClowderPropertyHandler;
+import com.redhat.cloud.common.clowder.configsource.utils.SecretDirectory;
 import io.smallrye.config.ConfigSourceContext;
 import io.smallrye.config.ConfigSourceFactory;
 import io.smallrye.config.ConfigValue;
@@ -24,13 +30,34 @@ import org.jboss.logging.Logger;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.CLOUDWATCH_BATCHING;
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.CONTAINER_THREAD_SIZING;
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.EAGER_WARM_UP;
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.EXPLAIN_AT_STARTUP;
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.EXPOSE_KAFKA_SSL_CONFIG_KEYS;
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.KAFKA_CLIENT_RACK;
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.KAFKA_CLIENT_RACK_FILE;
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.KAFKA_STREAMS_TUNING;
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.RAW_KEYS;
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.REACTIVE_DATASOURCE_TUNING;
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.REST_CLIENTS_FROM_ENDPOINTS;
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.SECRETS_DIRECTORY;
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.TLS_REGISTRY;
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.UNLEASH_FAST_STARTUP;
 import static io.smallrye.config.Expressions.withoutExpansion;
 
 /**
@@ -42,6 +69,82 @@ public class ClowderConfigSourceFactory implements ConfigSourceFactory {
 
     private static final Logger LOG = Logger.getLogger(ClowderConfigSourceFactory.class.getName());
 
+    // The config is built once per startup, a short-lived daemon thread is enough and never blocks the shutdown
+    private static final Executor WARM_UP_EXECUTOR = task -> {
+        Thread thread = new Thread(task, "clowder-config-source-warm-up");
+        thread.setDaemon(true);
+        thread.start();
+    };
+
+    /**
+     * How to create a handler, and when it is needed: when an existing property starts with one
+     * of its prefixes, or when the options make it provide properties the application doesn't have.
+     *
+     * @param byName whether Quarkus looks the keys of the handler up by name, without them being
+     *               defined anywhere (config roots, {@code clowder.*} keys), so the handler is
+     *               also needed whenever the Clowder config has one of its sections
+     */
+    private record HandlerRegistration(List<String> prefixes, List<String> sections, boolean byName,
+                                       Predicate<ClowderConfigSourceOptions> optIn,
+                                       BiFunction<ClowderConfig, ClowderConfigSourceOptions, ClowderPropertyHandler> constructor) {
+
+        boolean serves(String property) {
+            for (String prefix : prefixes) {
+                if (property.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean hasSection(JsonNode tree) {
+            for (String section : sections) {
+                JsonNode node = tree.get(section);
+                if (node != null && !node.isNull() && (!node.isContainerNode() || !node.isEmpty())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // In order of precedence, the first handler of a property handles it
+    private static final List<HandlerRegistration> HANDLERS = List.of(
+            new HandlerRegistration(WebPortClowderPropertyHandler.PREFIXES, WebPortClowderPropertyHandler.SECTIONS, true,
+                    options -> options.isEnabled(CONTAINER_THREAD_SIZING), WebPortClowderPropertyHandler::new),
+            new HandlerRegistration(QuarkusManagementClowderPropertyHandler.PREFIXES, QuarkusManagementClowderPropertyHandler.SECTIONS, true,
+                    options -> false, (root, options) -> new QuarkusManagementClowderPropertyHandler(root)),
+            new HandlerRegistration(KafkaBootstrapServersClowderPropertyHandler.PREFIXES, KafkaBootstrapServersClowderPropertyHandler.SECTIONS, false,
+                    options -> options.isSet(KAFKA_CLIENT_RACK) || options.isSet(KAFKA_CLIENT_RACK_FILE), KafkaBootstrapServersClowderPropertyHandler::new),
+            new HandlerRegistration(KafkaSecurityClowderPropertyHandler.PREFIXES, KafkaSecurityClowderPropertyHandler.SECTIONS, false,
+                    options -> options.isEnabled(EXPOSE_KAFKA_SSL_CONFIG_KEYS), KafkaSecurityClowderPropertyHandler::new),
+            new HandlerRegistration(QuarkusTlsRegistryClowderPropertyHandler.PREFIXES, QuarkusTlsRegistryClowderPropertyHandler.SECTIONS, false,
+                    options -> options.isEnabled(TLS_REGISTRY), QuarkusTlsRegistryClowderPropertyHandler::new),
+            new HandlerRegistration(QuarkusDataSourceClowderPropertyHandler.PREFIXES, QuarkusDataSourceClowderPropertyHandler.SECTIONS, true,
+                    options -> options.isEnabled(REACTIVE_DATASOURCE_TUNING), QuarkusDataSourceClowderPropertyHandler::new),
+            new HandlerRegistration(QuarkusLogCloudWatchClowderPropertyHandler.PREFIXES, QuarkusLogCloudWatchClowderPropertyHandler.SECTIONS, true,
+                    options -> options.isEnabled(CLOUDWATCH_BATCHING), QuarkusLogCloudWatchClowderPropertyHandler::new),
+            new HandlerRegistration(EndpointsClowderPropertyHandler.PREFIXES, EndpointsClowderPropertyHandler.SECTIONS, true,
+                    options -> options.isEnabled(REST_CLIENTS_FROM_ENDPOINTS),
+                    EndpointsClowderPropertyHandler::new),
+            new HandlerRegistration(OptionalEndpointsClowderPropertyHandler.PREFIXES, OptionalEndpointsClowderPropertyHandler.SECTIONS, true,
+                    options -> false, OptionalEndpointsClowderPropertyHandler::new),
+            new HandlerRegistration(OptionalPrivateEndpointsClowderPropertyHandler.PREFIXES, OptionalPrivateEndpointsClowderPropertyHandler.SECTIONS, true,
+                    options -> false, OptionalPrivateEndpointsClowderPropertyHandler::new),
+            new HandlerRegistration(PrivateEndpointsClowderPropertyHandler.PREFIXES, PrivateEndpointsClowderPropertyHandler.SECTIONS, true,
+                    options -> false, PrivateEndpointsClowderPropertyHandler::new),
+            new HandlerRegistration(MicroprofileMessagingClowderPropertyHandler.PREFIXES, MicroprofileMessagingClowderPropertyHandler.SECTIONS, false,
+                    options -> false, MicroprofileMessagingClowderPropertyHandler::new),
+            new HandlerRegistration(QuarkusKafkaStreamsClowderPropertyHandler.PREFIXES, QuarkusKafkaStreamsClowderPropertyHandler.SECTIONS, false,
+                    options -> options.isEnabled(KAFKA_STREAMS_TUNING), QuarkusKafkaStreamsClowderPropertyHandler::new),
+            new HandlerRegistration(QuarkusUnleashClowderPropertyHandler.PREFIXES, QuarkusUnleashClowderPropertyHandler.SECTIONS, true,
+                    options -> options.isEnabled(UNLEASH_FAST_STARTUP), QuarkusUnleashClowderPropertyHandler::new),
+            new HandlerRegistration(QuarkusRedisClowderPropertyHandler.PREFIXES, QuarkusRedisClowderPropertyHandler.SECTIONS, true,
+                    options -> false, (root, options) -> new QuarkusRedisClowderPropertyHandler(root)));
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
     @Override
     public Iterable<ConfigSource> getConfigSources(ConfigSourceContext configSourceContext) {
         ConfigValue cv = configSourceContext.getValue("acg.config");
@@ -68,41 +171,175 @@ public class ClowderConfigSourceFactory implements ConfigSourceFactory {
     }
 
     public static List<ClowderPropertyHandler> loadPropertyHandlers(ClowderConfig root, boolean exposeKafkaSslConfigKeys) {
-        return List.of(new WebPortClowderPropertyHandler(root),
-                new KafkaBootstrapServersClowderPropertyHandler(root),
-                new KafkaSecurityClowderPropertyHandler(root, exposeKafkaSslConfigKeys),
-                new QuarkusDataSourceClowderPropertyHandler(root),
-                new QuarkusLogCloudWatchClowderPropertyHandler(root),
-                new EndpointsClowderPropertyHandler(root),
-                new OptionalEndpointsClowderPropertyHandler(root),
-                new OptionalPrivateEndpointsClowderPropertyHandler(root),
-                new PrivateEndpointsClowderPropertyHandler(root),
-                new MicroprofileMessagingClowderPropertyHandler(root),
-                new QuarkusUnleashClowderPropertyHandler(root),
-                new QuarkusRedisClowderPropertyHandler(root));
+        return loadPropertyHandlers(root, new ClowderConfigSourceOptions(
+                Map.of(EXPOSE_KAFKA_SSL_CONFIG_KEYS, String.valueOf(exposeKafkaSslConfigKeys))));
     }
 
-    private static List<ConfigSource> loadClowderConfigFromFile(ConfigSourceContext configSourceContext, File clowderConfigFile) {
-        ConfigValue exposeKafkaSslConfigKeysCv = configSourceContext.getValue("feature-flags.expose-kafka-ssl-config-keys.enabled");
-        boolean exposeKafkaSslConfigKeys = false;
-        if (exposeKafkaSslConfigKeysCv != null
-                && exposeKafkaSslConfigKeysCv.getValue() != null) {
-            exposeKafkaSslConfigKeys = Boolean.parseBoolean(exposeKafkaSslConfigKeysCv.getValue());
+    /**
+     * Creates all the handlers, whether the application needs them or not.
+     */
+    public static List<ClowderPropertyHandler> loadPropertyHandlers(ClowderConfig root, ClowderConfigSourceOptions options) {
+        return HANDLERS.stream()
+                .map(registration -> registration.constructor().apply(root, options))
+                .toList();
+    }
+
+    /**
+     * Builds the config source from the Clowder config and the existing properties. Only the
+     * handlers the application needs are created, and only the values of the properties one of
+     * them is interested in are fetched.
+     */
+    public static ClowderConfigSource createConfigSource(ClowderConfig root, ClowderConfigSourceOptions options,
+                                                         Iterator<String> propertyNames, Function<String, ConfigValue> propertyValues) {
+        return createConfigSource(root, options, propertyNames, propertyValues, Map.of());
+    }
+
+    /**
+     * @param rawValues the {@code clowder.raw.*} keys served as is, see {@link #flatten(JsonNode)}.
+     */
+    public static ClowderConfigSource createConfigSource(ClowderConfig root, ClowderConfigSourceOptions options,
+                                                         Iterator<String> propertyNames, Function<String, ConfigValue> propertyValues,
+                                                         Map<String, String> rawValues) {
+        ClowderPropertyHandler[] handlers = new ClowderPropertyHandler[HANDLERS.size()];
+        boolean[] used = new boolean[HANDLERS.size()];
+        for (int i = 0; i < HANDLERS.size(); i++) {
+            HandlerRegistration registration = HANDLERS.get(i);
+            if (registration.byName() || registration.optIn().test(options)) {
+                handlers[i] = registration.constructor().apply(root, options);
+                used[i] = true;
+            }
         }
 
-        try {
-            String configJson = Files.readString(clowderConfigFile.toPath());
-            ObjectMapper objectMapper = new ObjectMapper();
-            objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            ClowderConfig root = objectMapper.readValue(configJson, ClowderConfig.class);
+        // It should be used, so get the existing key-values and
+        // supply them to our source.
+        Map<String, ConfigValue> exProp = new HashMap<>();
+        while (propertyNames.hasNext()) {
+            String key = propertyNames.next();
+            for (int i = 0; i < HANDLERS.size(); i++) {
+                HandlerRegistration registration = HANDLERS.get(i);
+                if (!registration.serves(key)) {
+                    continue;
+                }
+                if (handlers[i] == null) {
+                    handlers[i] = registration.constructor().apply(root, options);
+                }
+                if (handlers[i].handles(key)) {
+                    exProp.put(key, propertyValues.apply(key));
+                    used[i] = true;
+                    break;
+                }
+            }
+        }
 
-            LOG.info("Exposing Kafka config keys: " + exposeKafkaSslConfigKeys);
-            List<ClowderPropertyHandler> handlers = loadPropertyHandlers(root, exposeKafkaSslConfigKeys);
+        List<ClowderPropertyHandler> usedHandlers = new ArrayList<>();
+        for (int i = 0; i < HANDLERS.size(); i++) {
+            if (used[i]) {
+                usedHandlers.add(handlers[i]);
+            }
+        }
+
+        return new ClowderConfigSource(root, exProp, usedHandlers, rawValues);
+    }
+
+    public static ClowderConfig readClowderConfig(File clowderConfigFile) throws IOException {
+        String configJson = Files.readString(clowderConfigFile.toPath());
+        return OBJECT_MAPPER.readValue(configJson, ClowderConfig.class);
+    }
+
+    /**
+     * The sections of the Clowder config read by the handlers the application needs, empty when
+     * none of them is needed.
+     */
+    static Set<String> requiredSections(JsonNode tree, ClowderConfigSourceOptions options, Iterator<String> propertyNames) {
+        boolean[] needed = new boolean[HANDLERS.size()];
+        int remaining = HANDLERS.size();
+        for (int i = 0; i < HANDLERS.size(); i++) {
+            HandlerRegistration registration = HANDLERS.get(i);
+            if (registration.optIn().test(options) || (registration.byName() && registration.hasSection(tree))) {
+                needed[i] = true;
+                remaining--;
+            }
+        }
+
+        while (remaining > 0 && propertyNames.hasNext()) {
+            String key = propertyNames.next();
+            for (int i = 0; i < HANDLERS.size(); i++) {
+                if (!needed[i] && HANDLERS.get(i).serves(key)) {
+                    needed[i] = true;
+                    remaining--;
+                }
+            }
+        }
+
+        Set<String> sections = new LinkedHashSet<>();
+        for (int i = 0; i < HANDLERS.size(); i++) {
+            if (needed[i]) {
+                sections.addAll(HANDLERS.get(i).sections());
+            }
+        }
+        return sections;
+    }
+
+    /**
+     * Binds the scalar fields of the Clowder config and the given sections, the other sections
+     * (e.g. a long list of endpoints nobody reads) stay null.
+     */
+    static ClowderConfig bindSections(JsonNode tree, Set<String> sections) throws IOException {
+        if (!tree.isObject()) {
+            return OBJECT_MAPPER.treeToValue(tree, ClowderConfig.class);
+        }
+
+        ObjectNode bound = OBJECT_MAPPER.createObjectNode();
+        tree.fields().forEachRemaining(field -> {
+            if (!field.getValue().isContainerNode() || sections.contains(field.getKey())) {
+                bound.set(field.getKey(), field.getValue());
+            }
+        });
+        return OBJECT_MAPPER.treeToValue(bound, ClowderConfig.class);
+    }
+
+    /**
+     * Flattens every field of the Clowder config to a {@code clowder.raw.<path>} key, with {@code [i]}
+     * for the array elements, e.g. {@code clowder.raw.kafka.topics[2].name}. Nulls and empty
+     * objects or arrays have no key.
+     */
+    public static Map<String, String> flatten(JsonNode tree) {
+        Map<String, String> values = new HashMap<>();
+        StringBuilder path = new StringBuilder(ClowderConfigSource.CLOWDER_RAW);
+        tree.fields().forEachRemaining(field -> flatten(field.getValue(), path, field.getKey(), values));
+        return Map.copyOf(values);
+    }
+
+    private static void flatten(JsonNode node, StringBuilder path, String segment, Map<String, String> values) {
+        int length = path.length();
+        path.append(segment);
+        if (node.isObject()) {
+            node.fields().forEachRemaining(field -> flatten(field.getValue(), path, '.' + field.getKey(), values));
+        } else if (node.isArray()) {
+            for (int i = 0; i < node.size(); i++) {
+                flatten(node.get(i), path, "[" + i + "]", values);
+            }
+        } else if (!node.isNull()) {
+            values.put(path.toString(), node.asText());
+        }
+        path.setLength(length);
+    }
+
+    private static List<ConfigSource> loadClowderConfigFromFile(ConfigSourceContext configSourceContext, File clowderConfigFile) {
+        ClowderConfigSourceOptions options = ClowderConfigSourceOptions.fromContext(configSourceContext);
+        SecretDirectory.configure(options.get(SECRETS_DIRECTORY, null));
+
+        try {
+            JsonNode tree = OBJECT_MAPPER.readTree(clowderConfigFile);
+            Set<String> sections = requiredSections(tree, options, configSourceContext.iterateNames());
+            Map<String, String> rawValues = options.isEnabled(RAW_KEYS) ? flatten(tree) : Map.of();
+            if (sections.isEmpty() && rawValues.isEmpty()) {
+                LOG.info("No property is translated with the Clowder config, not using ClowderConfigSource");
+                return List.of();
+            }
+            ClowderConfig root = bindSections(tree, sections);
 
-            // It should be used, so get the existing key-values and
-            // supply them to our source.
-            Map<String, ConfigValue> exProp = new HashMap<>();
-            Iterator<String> stringIterator = configSourceContext.iterateNames();
+            LOG.info("Exposing Kafka config keys: " + options.isEnabled(EXPOSE_KAFKA_SSL_CONFIG_KEYS));
 
             /*
              * A config value expansion happens when an expression wrapped into `${ }` is resolved.
@@ -113,20 +350,19 @@ public class ClowderConfigSourceFactory implements ConfigSourceFactory {
              * Such a throw should only happen when the config value is actually used and not here.
              * That's why we need to disable the config values expansion.
              */
-            withoutExpansion(() -> {
-                while (stringIterator.hasNext()) {
-                    String key = stringIterator.next();
-                    for (ClowderPropertyHandler handler : handlers) {
-                        if (handler.handles(key)) {
-                            ConfigValue value = configSourceContext.getValue(key);
-                            exProp.put(key, value);
-                            break;
-                        }
-                    }
+            ClowderConfigSource configSource = withoutExpansion(() ->
+                    createConfigSource(root, options, configSourceContext.iterateNames(), configSourceContext::getValue, rawValues));
+            if (options.isEnabled(EXPLAIN_AT_STARTUP)) {
+                // Before the warm-up, so that the files are reported as written by the key that needs them
+                for (KeyExplanation explanation : configSource.explainAll()) {
+                    LOG.info("Clowder config key " + explanation);
                 }
-            });
+            }
+            if (options.isEnabled(EAGER_WARM_UP)) {
+                configSource.warmUp(WARM_UP_EXECUTOR);
+            }
 
-            return Collections.singletonList(new ClowderConfigSource(root, exProp, handlers));
+            return Collections.singletonList(configSource);
         } catch (IOException ex) {
             LOG.warn("Reading the clowder config failed, not doing translations", ex);
             return List.of();
@@ -0,0 +1,131 @@
+package com.redhat.cloud.common.clowder.configsource;
+
+import io.smallrye.config.ConfigSourceContext;
+import io.smallrye.config.ConfigValue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Opt-in switches and settings that change what the {@link ClowderConfigSource} provides.
+ * They are read once from the existing configuration (application.properties, system
+ * properties, environment) when the config source is built.
+ */
+public class ClowderConfigSourceOptions {
+
+    public static final String EXPOSE_KAFKA_SSL_CONFIG_KEYS = "feature-flags.expose-kafka-ssl-config-keys.enabled";
+    public static final String REACTIVE_DATASOURCE_TUNING = "feature-flags.reactive-datasource-tuning.enabled";
+    public static final String DATABASE_DATASOURCES = "acg.database.datasources";
+    public static final String DATABASE_READ_REPLICA_HOSTNAMES = "acg.database.read-replica-hostnames";
+    public static final String DATABASE_READ_REPLICA_DATASOURCES = "acg.database.read-replica-datasources";
+    public static final String CLOUDWATCH_BATCHING = "feature-flags.cloudwatch-batching.enabled";
+    public static final String LOGGING_OVERFLOW = "acg.logging.overflow";
+    public static final String UNLEASH_FAST_STARTUP = "feature-flags.unleash-fast-startup.enabled";
+    public static final String UNLEASH_BACKUP_FILE = "acg.unleash.backup-file";
+    public static final String REST_CLIENTS_FROM_ENDPOINTS = "feature-flags.rest-clients-from-endpoints.enabled";
+    public static final String KAFKA_CLIENT_RACK = "acg.kafka.client-rack";
+    public static final String KAFKA_CLIENT_RACK_FILE = "acg.kafka.client-rack-file";
+    public static final String KAFKA_CONSUMER_PROFILE = "acg.kafka.consumer-profile";
+    public static final String SECRETS_DIRECTORY = "acg.secrets.directory";
+    public static final String KAFKA_INLINE_TRUSTSTORE = "feature-flags.kafka-inline-truststore.enabled";
+    public static final String EAGER_WARM_UP = "feature-flags.eager-warm-up.enabled";
+    public static final String CONTAINER_THREAD_SIZING = "feature-flags.container-thread-sizing.enabled";
+    public static final String TLS_REGISTRY = "feature-flags.tls-registry.enabled";
+    public static final String TLS_CONFIGURATION_NAME = "acg.tls.configuration-name";
+    public static final String RAW_KEYS = "feature-flags.raw-keys.enabled";
+    public static final String KAFKA_STREAMS_TUNING = "feature-flags.kafka-streams-tuning.enabled";
+    public static final String KAFKA_STREAMS_STATE_DIR = "acg.kafka-streams.state-dir";
+    public static final String EXPLAIN_AT_STARTUP = "feature-flags.explain-at-startup.enabled";
+
+    private static final List<String> KEYS = List.of(
+            EXPOSE_KAFKA_SSL_CONFIG_KEYS,
+            REACTIVE_DATASOURCE_TUNING,
+            DATABASE_DATASOURCES,
+            DATABASE_READ_REPLICA_HOSTNAMES,
+            DATABASE_READ_REPLICA_DATASOURCES,
+            CLOUDWATCH_BATCHING,
+            LOGGING_OVERFLOW,
+            UNLEASH_FAST_STARTUP,
+            UNLEASH_BACKUP_FILE,
+            REST_CLIENTS_FROM_ENDPOINTS,
+            KAFKA_CLIENT_RACK,
+            KAFKA_CLIENT_RACK_FILE,
+            KAFKA_CONSUMER_PROFILE,
+            SECRETS_DIRECTORY,
+            KAFKA_INLINE_TRUSTSTORE,
+            EAGER_WARM_UP,
+            CONTAINER_THREAD_SIZING,
+            TLS_REGISTRY,
+            TLS_CONFIGURATION_NAME,
+            RAW_KEYS,
+            KAFKA_STREAMS_TUNING,
+            KAFKA_STREAMS_STATE_DIR,
+            EXPLAIN_AT_STARTUP);
+
+    private final Map<String, String> values;
+
+    public ClowderConfigSourceOptions(Map<String, String> values) {
+        this.values = Map.copyOf(values);
+    }
+
+    /**
+     * Picks the options out of a set of properties, e.g. an application.properties file.
+     */
+    public static ClowderConfigSourceOptions fromProperties(Map<String, String> properties) {
+        return fromLookup(properties::get);
+    }
+
+    public static ClowderConfigSourceOptions fromContext(ConfigSourceContext configSourceContext) {
+        return fromLookup(key -> {
+            ConfigValue cv = configSourceContext.getValue(key);
+            return cv != null ? cv.getValue() : null;
+        });
+    }
+
+    /**
+     * Looks the options up one by one, e.g. in a config built from the system properties, the
+     * environment ({@code ACG_*}, {@code FEATURE_FLAGS_*}) and an application.properties file.
+     */
+    public static ClowderConfigSourceOptions fromLookup(Function<String, String> lookup) {
+        Map<String, String> values = new HashMap<>();
+        for (String key : KEYS) {
+            String value = lookup.apply(key);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+
+        return new ClowderConfigSourceOptions(values);
+    }
+
+    public boolean isEnabled(String key) {
+        return Boolean.parseBoolean(values.get(key));
+    }
+
+    public boolean isSet(String key) {
+        String value = values.get(key);
+        return value != null && !value.isBlank();
+    }
+
+    public String get(String key, String defaultValue) {
+        return values.getOrDefault(key, defaultValue);
+    }
+
+    /**
+     * Returns the comma separated values of an option, or an empty list if it is not set.
+     */
+    public List<String> getList(String key) {
+        String value = values.get(key);
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .toList();
+    }
+}
@@ -0,0 +1,114 @@
+package com.redhat.cloud.common.clowder.configsource;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * How the {@link ClowderConfigSource} resolved a config key, see {@link ClowderConfigSource#explain(String)}.
+ * <p>
+ * The values may be secrets (passwords, JAAS configurations), {@link #toString()} leaves them out so
+ * that an explanation can be logged.
+ *
+ * @param key        the explained key
+ * @param value      the value returned by the config source, {@code null} when there is none or the lookup failed
+ * @param resolution where the value came from
+ * @param handler    the class name of the handler of the key, {@code null} when no handler handles it
+ * @param lookups    the values looked up while resolving the key, in order
+ * @param expansions the {@code ${}} expressions expanded in the existing values, in order
+ * @param files      the secret files written or reused for the value
+ * @param error      the message of the exception thrown by the lookup, {@code null} when it succeeded
+ * @param nanos      how long the whole lookup took
+ */
+public record KeyExplanation(String key, String value, Resolution resolution, String handler, List<Lookup> lookups,
+                             List<Expansion> expansions, List<String> files, String error, long nanos) {
+
+    public enum Resolution {
+        /**
+         * A {@code clowder.raw.*} key, served as is from the Clowder config.
+         */
+        RAW,
+        /**
+         * Translated by the handler from the Clowder config.
+         */
+        HANDLER,
+        /**
+         * The handler returned the existing value of the key, e.g. a value set by the application wins
+         * or the Clowder config has no value for it.
+         */
+        HANDLER_FALLBACK,
+        /**
+         * No handler handles the key, the existing value is returned.
+         */
+        EXISTING_VALUE,
+        /**
+         * The lookup threw an exception.
+         */
+        FAILED
+    }
+
+    /**
+     * A value looked up while resolving the key.
+     *
+     * @param key      the looked up key, the explained key itself or another one
+     * @param existing {@code true} for the existing value (application.properties, environment...),
+     *                 {@code false} for a value translated by the config source
+     * @param nanos    how long the lookup took, expansions included
+     */
+    public record Lookup(String key, boolean existing, long nanos) {
+    }
+
+    public enum Origin {
+        /**
+         * Another existing property, or a {@code clowder.raw.*} field.
+         */
+        PROPERTY,
+        SYSTEM_PROPERTY,
+        ENVIRONMENT,
+        /**
+         * The default value of the expression, {@code ${name:default}}.
+         */
+        DEFAULT,
+        /**
+         * Nothing, the expression is left as is.
+         */
+        UNRESOLVED
+    }
+
+    /**
+     * @param expression the expression inside {@code ${...}}, default value included
+     * @param name       the name of the referenced property
+     * @param origin     where the value came from
+     * @param value      the expanded value, {@code null} when unresolved
+     */
+    public record Expansion(String expression, String name, Origin origin, String value) {
+    }
+
+    /**
+     * A one line description, without the values.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(key).append(": ").append(resolution);
+        if (handler != null) {
+            sb.append(" by ").append(handler);
+        }
+        if (!lookups.isEmpty()) {
+            sb.append(", lookups ").append(lookups.stream()
+                    .map(lookup -> lookup.key() + (lookup.existing() ? " (existing)" : ""))
+                    .collect(Collectors.joining(", ", "[", "]")));
+        }
+        if (!expansions.isEmpty()) {
+            sb.append(", expansions ").append(expansions.stream()
+                    .map(expansion -> expansion.name() + " from " + expansion.origin())
+                    .collect(Collectors.joining(", ", "[", "]")));
+        }
+        if (!files.isEmpty()) {
+            sb.append(", files ").append(files);
+        }
+        if (error != null) {
+            sb.append(", error: ").append(error);
+        }
+        return sb.append(String.format(Locale.ROOT, ", %.3f ms", nanos / 1_000_000.0)).toString();
+    }
+}
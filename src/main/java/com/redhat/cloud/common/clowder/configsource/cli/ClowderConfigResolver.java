@@ -0,0 +1,259 @@
+package com.redhat.cloud.common.clowder.configsource.cli;
+
+import com.redhat.cloud.common.clowder.configsource.ClowderConfig;
+import com.redhat.cloud.common.clowder.configsource.ClowderConfigSource;
+import com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions;
+import com.redhat.cloud.common.clowder.configsource.utils.SecretDirectory;
+import io.smallrye.config.ConfigValue;
+import io.smallrye.config.PropertiesConfigSource;
+import io.smallrye.config.SmallRyeConfig;
+import io.smallrye.config.SmallRyeConfigBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceFactory.createConfigSource;
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceFactory.readClowderConfig;
+
+/**
+ * Resolves an application.properties file against a cdappconfig.json the same way the config source
+ * does at startup, without booting the application.
+ * <pre>
+ * java -jar clowder-quarkus-config-source-app.jar [options] &lt;cdappconfig.json&gt; &lt;application.properties&gt;
+ *
+ *   --output &lt;file&gt;            write the resolved properties to the file instead of the standard output
+ *   --timings                  print the time spent resolving each key, slowest first
+ *   --diff &lt;cdappconfig.json&gt;  print the keys that resolve differently with a second cdappconfig.json
+ * </pre>
+ * The tables are printed on the standard error.
+ * <p>
+ * The options of the config source (e.g. {@code feature-flags.*.enabled}) are read like at startup:
+ * the system properties and the environment ({@code ACG_*}, {@code FEATURE_FLAGS_*}) override the
+ * application.properties file.
+ */
+public class ClowderConfigResolver {
+
+    static final int EXIT_OK = 0;
+    static final int EXIT_RESOLUTION_FAILED = 1;
+    static final int EXIT_USAGE = 2;
+
+    private static final String USAGE = "Usage: java -jar clowder-quarkus-config-source-app.jar [--output <file>] [--timings] [--diff <cdappconfig.json>] <cdappconfig.json> <application.properties>";
+    private static final Pattern SENSITIVE_KEY = Pattern.compile(".*(password|secret|token|jaas).*", Pattern.CASE_INSENSITIVE);
+    private static final String APP_PROPERTIES_SOURCE = "PropertiesConfigSource[source=application.properties]";
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        Path output = null;
+        Path diff = null;
+        boolean timings = false;
+        List<String> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--output" -> {
+                    if (++i == args.length) {
+                        return usage(err, "--output requires a file");
+                    }
+                    output = Path.of(args[i]);
+                }
+                case "--diff" -> {
+                    if (++i == args.length) {
+                        return usage(err, "--diff requires a cdappconfig.json file");
+                    }
+                    diff = Path.of(args[i]);
+                }
+                case "--timings" -> timings = true;
+                case "-h", "--help" -> {
+                    out.println(USAGE);
+                    return EXIT_OK;
+                }
+                default -> {
+                    if (args[i].startsWith("--")) {
+                        return usage(err, "Unknown option " + args[i]);
+                    }
+                    files.add(args[i]);
+                }
+            }
+        }
+        if (files.size() != 2) {
+            return usage(err, "Expected a cdappconfig.json and an application.properties file");
+        }
+
+        try {
+            Map<String, String> properties = readProperties(Path.of(files.get(1)));
+            Resolution resolution = resolve(readClowderConfig(new File(files.get(0))), properties);
+
+            String rendered = render(resolution.values);
+            if (output != null) {
+                Files.writeString(output, rendered);
+            } else {
+                out.print(rendered);
+            }
+
+            if (timings) {
+                printTimings(resolution.timings, err);
+            }
+            if (diff != null) {
+                Resolution other = resolve(readClowderConfig(diff.toFile()), properties);
+                printDiff(resolution.values, other.values, err);
+            }
+            for (Map.Entry<String, String> failure : resolution.failures.entrySet()) {
+                err.printf("Failed to resolve %s: %s%n", failure.getKey(), failure.getValue());
+            }
+
+            return resolution.failures.isEmpty() ? EXIT_OK : EXIT_RESOLUTION_FAILED;
+        } catch (IOException e) {
+            err.println("Can't read the input files: " + e.getMessage());
+            return EXIT_USAGE;
+        }
+    }
+
+    /**
+     * The resolved values of the application properties and of the keys provided by the config source.
+     */
+    static Resolution resolve(ClowderConfig root, Map<String, String> properties) {
+        ClowderConfigSource source = createConfigSource(root, readOptions(properties),
+                properties.keySet().iterator(), key -> new ConfigValue.ConfigValueBuilder()
+                        .withName(key)
+                        .withValue(properties.get(key))
+                        .withConfigSourceName(APP_PROPERTIES_SOURCE)
+                        .withConfigSourceOrdinal(250)
+                        .build());
+
+        Resolution resolution = new Resolution();
+        TreeSet<String> keys = new TreeSet<>(properties.keySet());
+        keys.addAll(source.getPropertyNames());
+        for (String key : keys) {
+            String original = properties.get(key);
+            if (!source.getPropertyNames().contains(key)) {
+                resolution.values.put(key, original);
+                continue;
+            }
+
+            long start = System.nanoTime();
+            String value;
+            try {
+                value = source.getValue(key);
+            } catch (RuntimeException e) {
+                resolution.failures.put(key, e.getMessage());
+                value = null;
+            }
+            resolution.timings.put(key, System.nanoTime() - start);
+
+            // Files written now are deleted when the resolver exits, the keys referencing them are left to the runtime
+            if (value == null || SecretDirectory.isReferencedBy(value)) {
+                value = original;
+            }
+            if (value != null) {
+                resolution.values.put(key, value);
+            }
+        }
+
+        return resolution;
+    }
+
+    private static ClowderConfigSourceOptions readOptions(Map<String, String> properties) {
+        SmallRyeConfig config = new SmallRyeConfigBuilder()
+                .addSystemSources()
+                .withSources(new PropertiesConfigSource(properties, APP_PROPERTIES_SOURCE, 250))
+                .build();
+        return ClowderConfigSourceOptions.fromLookup(key -> config.getConfigValue(key).getValue());
+    }
+
+    private static Map<String, String> readProperties(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream is = Files.newInputStream(file)) {
+            properties.load(is);
+        }
+
+        Map<String, String> map = new HashMap<>();
+        properties.forEach((k, v) -> map.put(String.valueOf(k), String.valueOf(v)));
+        return map;
+    }
+
+    static String render(Map<String, String> values) {
+        StringBuilder sb = new StringBuilder();
+        values.forEach((key, value) -> sb.append(escape(key, true)).append('=').append(escape(value, false)).append('\n'));
+        return sb.toString();
+    }
+
+    /**
+     * Escapes like {@link Properties#store}, without its timestamp comment and its arbitrary ordering.
+     */
+    private static String escape(String s, boolean key) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                case '\f' -> sb.append("\\f");
+                case '=', ':', '#', '!' -> sb.append('\\').append(c);
+                case ' ' -> sb.append(key || i == 0 ? "\\ " : " ");
+                default -> {
+                    if (c < 0x20 || c > 0x7e) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void printTimings(Map<String, Long> timings, PrintStream err) {
+        err.printf("%-12s %s%n", "TIME (us)", "KEY");
+        timings.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(entry -> err.printf("%12.1f %s%n", entry.getValue() / 1000.0, entry.getKey()));
+    }
+
+    private static void printDiff(Map<String, String> values, Map<String, String> otherValues, PrintStream err) {
+        TreeSet<String> keys = new TreeSet<>(values.keySet());
+        keys.addAll(otherValues.keySet());
+        for (String key : keys) {
+            String value = values.get(key);
+            String otherValue = otherValues.get(key);
+            if (!Objects.equals(value, otherValue)) {
+                err.printf("%s: %s -> %s%n", key, mask(key, value), mask(key, otherValue));
+            }
+        }
+    }
+
+    private static String mask(String key, String value) {
+        if (value == null) {
+            return "<unset>";
+        }
+        return SENSITIVE_KEY.matcher(key).matches() ? "<redacted>" : value;
+    }
+
+    private static int usage(PrintStream err, String message) {
+        err.println(message);
+        err.println(USAGE);
+        return EXIT_USAGE;
+    }
+
+    static class Resolution {
+        final Map<String, String> values = new TreeMap<>();
+        final Map<String, Long> timings = new HashMap<>();
+        final Map<String, String> failures = new TreeMap<>();
+    }
+}
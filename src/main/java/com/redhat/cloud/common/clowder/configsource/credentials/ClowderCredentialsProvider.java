@@ -0,0 +1,154 @@
+package com.redhat.cloud.common.clowder.configsource.credentials;
+
+import com.redhat.cloud.common.clowder.configsource.BrokerConfig;
+import com.redhat.cloud.common.clowder.configsource.ClowderConfig;
+import io.quarkus.credentials.CredentialsProvider;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceFactory.readClowderConfig;
+
+/**
+ * Serves the credentials of the Clowder config to the clients supporting a {@link CredentialsProvider},
+ * e.g. the Agroal and reactive datasource pools:
+ * <pre>
+ * quarkus.datasource.credentials-provider=database
+ * quarkus.datasource.credentials-provider-name=clowder
+ * </pre>
+ * The Clowder config file is read again when it changes, so new connections use the rotated
+ * credentials without restarting the application.
+ * <p>
+ * The class is not a bean: the {@code quarkus-credentials} extension is optional, and a bean
+ * implementing its interface would break the applications which don't have it. The applications
+ * opt in by declaring the bean:
+ * <pre>
+ * &#64;ApplicationScoped
+ * &#64;Named(ClowderCredentialsProvider.NAME)
+ * public class CredentialsProviderBean extends ClowderCredentialsProvider {
+ * }
+ * </pre>
+ */
+public class ClowderCredentialsProvider implements CredentialsProvider {
+
+    public static final String NAME = "clowder";
+    public static final String DATABASE = "database";
+    public static final String IN_MEMORY_DB = "in-memory-db";
+    public static final String KAFKA_SASL = "kafka-sasl";
+
+    private static final Logger LOG = Logger.getLogger(ClowderCredentialsProvider.class.getName());
+
+    private record Snapshot(FileTime lastModified, ClowderConfig clowderConfig) {
+    }
+
+    private static final String DEFAULT_CONFIG_FILE = "/cdapp/cdappconfig.json";
+
+    // Read from acg.config on first use when not set
+    volatile String configFile;
+
+    private volatile Snapshot snapshot;
+
+    @Override
+    public Map<String, String> getCredentials(String credentialsProviderName) {
+        ClowderConfig clowderConfig = getClowderConfig();
+        return switch (credentialsProviderName) {
+            case DATABASE -> {
+                if (clowderConfig.database == null) {
+                    throw new IllegalStateException("No database section found");
+                }
+                yield credentials(clowderConfig.database.username, clowderConfig.database.password);
+            }
+            case IN_MEMORY_DB -> {
+                if (clowderConfig.inMemoryDb == null) {
+                    throw new IllegalStateException("No inMemoryDb section found");
+                }
+                yield credentials(clowderConfig.inMemoryDb.username, clowderConfig.inMemoryDb.password);
+            }
+            case KAFKA_SASL -> {
+                BrokerConfig broker = getSaslBroker(clowderConfig);
+                yield credentials(broker.sasl.username, broker.sasl.password);
+            }
+            default -> throw new IllegalArgumentException("Unknown credentials '" + credentialsProviderName
+                    + "', expected one of " + DATABASE + ", " + IN_MEMORY_DB + " or " + KAFKA_SASL);
+        };
+    }
+
+    /**
+     * The Clowder config, read again when the modification time of the file changed. A file that
+     * can't be read (e.g. while it is being replaced) keeps the previous credentials.
+     */
+    ClowderConfig getClowderConfig() {
+        Path path = Path.of(getConfigFile());
+        Snapshot current = snapshot;
+        FileTime lastModified;
+        try {
+            lastModified = Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return keepPrevious(current, path, e);
+        }
+        if (current != null && current.lastModified().equals(lastModified)) {
+            return current.clowderConfig();
+        }
+
+        synchronized (this) {
+            current = snapshot;
+            if (current != null && current.lastModified().equals(lastModified)) {
+                return current.clowderConfig();
+            }
+            try {
+                ClowderConfig clowderConfig = readClowderConfig(path.toFile());
+                snapshot = new Snapshot(lastModified, clowderConfig);
+                if (current != null) {
+                    LOG.info("Clowder config " + path + " changed, reloaded the credentials");
+                }
+                return clowderConfig;
+            } catch (IOException e) {
+                return keepPrevious(current, path, e);
+            }
+        }
+    }
+
+    private String getConfigFile() {
+        String file = configFile;
+        if (file == null) {
+            file = ConfigProvider.getConfig().getOptionalValue("acg.config", String.class).orElse(DEFAULT_CONFIG_FILE);
+            configFile = file;
+        }
+        return file;
+    }
+
+    private static ClowderConfig keepPrevious(Snapshot current, Path path, IOException e) {
+        if (current == null) {
+            throw new IllegalStateException("Can't read clowder config from " + path, e);
+        }
+        LOG.warn("Can't read clowder config from " + path + ", keeping the previous credentials", e);
+        return current.clowderConfig();
+    }
+
+    private static BrokerConfig getSaslBroker(ClowderConfig clowderConfig) {
+        if (clowderConfig.kafka == null || clowderConfig.kafka.brokers == null) {
+            throw new IllegalStateException("Kafka base object not present, can't get the SASL credentials");
+        }
+        return clowderConfig.kafka.brokers.stream()
+                .filter(broker -> "sasl".equals(broker.authtype) && broker.sasl != null)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No Kafka broker with SASL credentials found"));
+    }
+
+    private static Map<String, String> credentials(String user, String password) {
+        Map<String, String> credentials = new HashMap<>();
+        if (user != null) {
+            credentials.put(USER_PROPERTY_NAME, user);
+        }
+        if (password != null) {
+            credentials.put(PASSWORD_PROPERTY_NAME, password);
+        }
+        return credentials;
+    }
+}
@@ -5,6 +5,14 @@ import com.redhat.cloud.common.clowder.configsource.ClowderConfigSource;
 
 import java.util.List;
 
+/**
+ * Translates some of the existing properties with values from the Clowder config.
+ * <p>
+ * Each handler also declares, in {@code public static final List<String>} fields, the
+ * {@code PREFIXES} of the keys it serves, a superset of what {@link #handles(String)} accepts, and
+ * the {@code SECTIONS} (field names of {@link ClowderConfig}) it reads. The factory uses them to
+ * only create the handlers an application needs and only bind the sections they read.
+ */
 public abstract class ClowderPropertyHandler {
 
     protected final ClowderConfig clowderConfig;
@@ -23,4 +31,22 @@ public abstract class ClowderPropertyHandler {
     public List<String> provides() {
         return List.of();
     }
+
+    /**
+     * List of properties that this property handler exposes, for handlers that derive them
+     * from the existing properties (e.g. one key per configured channel).
+     */
+    public List<String> provides(ClowderConfigSource configSource) {
+        return provides();
+    }
+
+    /**
+     * Tells whether {@link #handle(String, ClowderConfigSource)} returns a non-blank value for one of
+     * the provided properties, without computing it: no I/O, no temp files and no exceptions.
+     * Handlers that can't tell return {@link PropertyAvailability#UNKNOWN}, the value is then
+     * computed to find out.
+     */
+    public PropertyAvailability availability(String property) {
+        return PropertyAvailability.UNKNOWN;
+    }
 }
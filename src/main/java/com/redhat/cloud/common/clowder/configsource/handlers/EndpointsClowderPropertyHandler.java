@@ -2,9 +2,17 @@ package com.redhat.cloud.common.clowder.configsource.handlers;
 
 import com.redhat.cloud.common.clowder.configsource.ClowderConfig;
 import com.redhat.cloud.common.clowder.configsource.ClowderConfigSource;
+import com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions;
 import com.redhat.cloud.common.clowder.configsource.EndpointConfig;
+import org.jboss.logging.Logger;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.REST_CLIENTS_FROM_ENDPOINTS;
 
 public class EndpointsClowderPropertyHandler extends ClowderPropertyHandler {
 
@@ -13,19 +21,124 @@ public class EndpointsClowderPropertyHandler extends ClowderPropertyHandler {
     private static final String CLOWDER_ENDPOINTS_PARAM_TRUST_STORE_PATH = "trust-store-path";
     private static final String CLOWDER_ENDPOINTS_PARAM_TRUST_STORE_PASSWORD = "trust-store-password";
     private static final String CLOWDER_ENDPOINTS_PARAM_TRUST_STORE_TYPE = "trust-store-type";
+    private static final String CLOWDER_ENDPOINTS_PARAM_CONNECTION_POOL_SIZE = "connection-pool-size";
+    private static final String CLOWDER_ENDPOINTS_PARAM_KEEP_ALIVE_ENABLED = "keep-alive-enabled";
+    private static final String CLOWDER_ENDPOINTS_PARAM_HTTP2 = "http2";
+    private static final String CLOWDER_ENDPOINTS_PARAM_CONNECT_TIMEOUT = "connect-timeout";
+    private static final String CLOWDER_ENDPOINTS_PARAM_READ_TIMEOUT = "read-timeout";
+    private static final String CLOWDER_ENDPOINTS_PARAM_TLS_CONFIGURATION_NAME = "tls-configuration-name";
+    private static final String CONNECTION_POOL_SIZE_VALUE = "50";
+    private static final String CONNECT_TIMEOUT_VALUE = "5000";
+    private static final String READ_TIMEOUT_VALUE = "30000";
     private static final Integer PORT_NOT_SET = 0;
+    private static final String EXAMPLE_FORMAT = "[%s].[url|trust-store-path|trust-store-password|trust-store-type|connection-pool-size|keep-alive-enabled|http2|connect-timeout|read-timeout|tls-configuration-name]";
+
+    private static final String QUARKUS_REST_CLIENT = "quarkus.rest-client.";
+    private static final String QUARKUS_REST_CLIENT_PARAM_TRUST_STORE = "trust-store";
+    // REST client params and the endpoint params they are served from
+    // Ordered, so that the provided keys come in the same order on every run
+    private static final Map<String, String> REST_CLIENT_PARAMS = restClientParams();
+    private static final List<String> REST_CLIENT_TLS_PARAMS = List.of(
+            QUARKUS_REST_CLIENT_PARAM_TRUST_STORE,
+            CLOWDER_ENDPOINTS_PARAM_TRUST_STORE_PASSWORD,
+            CLOWDER_ENDPOINTS_PARAM_TRUST_STORE_TYPE,
+            CLOWDER_ENDPOINTS_PARAM_TLS_CONFIGURATION_NAME);
+    public static final List<String> PREFIXES = List.of(CLOWDER_ENDPOINTS, QUARKUS_REST_CLIENT);
+    public static final List<String> SECTIONS = List.of("endpoints", "tlsCAPath");
+
+    private final boolean restClients;
+    private final String tlsConfigurationName;
 
     public EndpointsClowderPropertyHandler(ClowderConfig clowderConfig) {
+        this(clowderConfig, false);
+    }
+
+    /**
+     * @param restClients whether the {@code quarkus.rest-client."<app>-<name>".*} keys should be
+     *                    provided for every Clowder endpoint.
+     */
+    public EndpointsClowderPropertyHandler(ClowderConfig clowderConfig, boolean restClients) {
+        this(clowderConfig, restClients, null);
+    }
+
+    public EndpointsClowderPropertyHandler(ClowderConfig clowderConfig, ClowderConfigSourceOptions options) {
+        this(clowderConfig, options.isEnabled(REST_CLIENTS_FROM_ENDPOINTS), QuarkusTlsRegistryClowderPropertyHandler.configurationName(options));
+    }
+
+    /**
+     * @param tlsConfigurationName the TLS registry configuration trusting the Clowder CA, returned by
+     *                             the {@code tls-configuration-name} param, or {@code null} if there is none.
+     */
+    protected EndpointsClowderPropertyHandler(ClowderConfig clowderConfig, boolean restClients, String tlsConfigurationName) {
         super(clowderConfig);
+        this.restClients = restClients;
+        this.tlsConfigurationName = tlsConfigurationName;
+    }
+
+    private static Map<String, String> restClientParams() {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put(CLOWDER_ENDPOINTS_PARAM_URL, CLOWDER_ENDPOINTS_PARAM_URL);
+        params.put(QUARKUS_REST_CLIENT_PARAM_TRUST_STORE, CLOWDER_ENDPOINTS_PARAM_TRUST_STORE_PATH);
+        params.put(CLOWDER_ENDPOINTS_PARAM_TRUST_STORE_PASSWORD, CLOWDER_ENDPOINTS_PARAM_TRUST_STORE_PASSWORD);
+        params.put(CLOWDER_ENDPOINTS_PARAM_TRUST_STORE_TYPE, CLOWDER_ENDPOINTS_PARAM_TRUST_STORE_TYPE);
+        params.put(CLOWDER_ENDPOINTS_PARAM_CONNECTION_POOL_SIZE, CLOWDER_ENDPOINTS_PARAM_CONNECTION_POOL_SIZE);
+        params.put(CLOWDER_ENDPOINTS_PARAM_KEEP_ALIVE_ENABLED, CLOWDER_ENDPOINTS_PARAM_KEEP_ALIVE_ENABLED);
+        params.put(CLOWDER_ENDPOINTS_PARAM_HTTP2, CLOWDER_ENDPOINTS_PARAM_HTTP2);
+        params.put(CLOWDER_ENDPOINTS_PARAM_CONNECT_TIMEOUT, CLOWDER_ENDPOINTS_PARAM_CONNECT_TIMEOUT);
+        params.put(CLOWDER_ENDPOINTS_PARAM_READ_TIMEOUT, CLOWDER_ENDPOINTS_PARAM_READ_TIMEOUT);
+        params.put(CLOWDER_ENDPOINTS_PARAM_TLS_CONFIGURATION_NAME, CLOWDER_ENDPOINTS_PARAM_TLS_CONFIGURATION_NAME);
+        return Collections.unmodifiableMap(params);
+    }
+
+    @Override
+    public List<String> provides() {
+        if (!restClients || clowderConfig.endpoints == null) {
+            return List.of();
+        }
+
+        List<String> properties = new ArrayList<>();
+        for (EndpointConfig endpoint : clowderConfig.endpoints) {
+            String prefix = String.format("%s\"%s-%s\".", QUARKUS_REST_CLIENT, endpoint.app, endpoint.name);
+            for (String param : REST_CLIENT_PARAMS.keySet()) {
+                if (!REST_CLIENT_TLS_PARAMS.contains(param)) {
+                    properties.add(prefix + param);
+                } else if (usesTls(endpoint)
+                        && param.equals(CLOWDER_ENDPOINTS_PARAM_TLS_CONFIGURATION_NAME) == (tlsConfigurationName != null)) {
+                    // The TLS registry configuration replaces the trust store when there is one
+                    properties.add(prefix + param);
+                }
+            }
+        }
+
+        return properties;
+    }
+
+    @Override
+    public PropertyAvailability availability(String property) {
+        if (!property.startsWith(QUARKUS_REST_CLIENT)) {
+            return PropertyAvailability.UNKNOWN;
+        }
+
+        // Only the params an endpoint has are provided, the trust store also needs the CA
+        String param = property.substring(property.lastIndexOf('.') + 1);
+        if (REST_CLIENT_TLS_PARAMS.contains(param)) {
+            return PropertyAvailability.availableIf(clowderConfig.tlsCAPath != null && !clowderConfig.tlsCAPath.isBlank());
+        }
+        return PropertyAvailability.AVAILABLE;
     }
 
     @Override
     public boolean handles(String property) {
-        return property.startsWith(getPropertyEndpointKey());
+        return property.startsWith(getPropertyEndpointKey())
+                || (restClients && property.startsWith(QUARKUS_REST_CLIENT));
     }
 
     @Override
     public String handle(String property, ClowderConfigSource configSource) {
+        if (property.startsWith(QUARKUS_REST_CLIENT)) {
+            return handleRestClient(property, configSource);
+        }
+
         try {
             if (clowderConfig.endpoints == null) {
                 throw new IllegalStateException("No endpoints section found");
@@ -33,7 +146,7 @@ public class EndpointsClowderPropertyHandler extends ClowderPropertyHandler {
 
             return processEndpoints(property, configSource, clowderConfig.endpoints, "Endpoint");
         } catch (IllegalStateException e) {
-            configSource.getLogger().errorf("Failed to load config key '%s' from the Clowder configuration: %s", property, e.getMessage());
+            configSource.getDiagnostics().logf(Logger.Level.ERROR, property, "Failed to load config key '%s' from the Clowder configuration: %s", property, e.getMessage());
             throw e;
         }
     }
@@ -62,39 +175,39 @@ public class EndpointsClowderPropertyHandler extends ClowderPropertyHandler {
 
         final String requestedEndpoint;
         final String param;
-        final String FORMAT_EXAMPLE = String.format("[%s].[url|trust-store-path|trust-store-password|trust-store-type]", endpointType);
         if (configPath.length == 1) {
-            configSource.getLogger().warnf("%s '%s' is using the old format. Please move to the new one: %s", endpointType, requestedEndpointConfig, FORMAT_EXAMPLE);
+            // The example is part of the format, so a repeated warning only formats it when DEBUG is enabled
+            configSource.getDiagnostics().logf(Logger.Level.WARN, configKey, "%s '%s' is using the old format. Please move to the new one: " + EXAMPLE_FORMAT, endpointType, requestedEndpointConfig, endpointType);
             requestedEndpoint = configPath[0];
             param = CLOWDER_ENDPOINTS_PARAM_URL;
         } else if (configPath.length != 2) {
-            throw new IllegalArgumentException(String.format("%s '%s' expects a different format: %s", endpointType, requestedEndpointConfig, FORMAT_EXAMPLE));
+            throw new IllegalArgumentException(String.format("%s '%s' expects a different format: %s", endpointType, requestedEndpointConfig, formatExample(endpointType)));
         } else {
             requestedEndpoint = configPath[0];
             param = configPath[1];
         }
 
-        EndpointConfig endpointConfig = null;
-
-        for (final EndpointConfig configCandidate : endpoints) {
-            final String currentEndpoint = String.format("%s-%s", configCandidate.app, configCandidate.name);
-            if (currentEndpoint.equals(requestedEndpoint)) {
-                endpointConfig = configCandidate;
-                break;
-            }
-        }
+        EndpointConfig endpointConfig = findEndpoint(endpoints, requestedEndpoint);
 
         if (endpointConfig == null) {
-            configSource.getLogger().warnf("%s '%s' not found in the %s section", endpointType, requestedEndpoint, clowderKey.substring(0, clowderKey.length() - 1));
+            configSource.getDiagnostics().logf(Logger.Level.WARN, configKey, "%s '%s' not found in the %s section", endpointType, requestedEndpoint, clowderKey.substring(0, clowderKey.length() - 1));
             return null;
         }
 
+        return getEndpointParam(configKey, endpointConfig, param, configSource, requestedEndpoint, endpointType);
+    }
+
+    private static String formatExample(String endpointType) {
+        return String.format(EXAMPLE_FORMAT, endpointType);
+    }
+
+    private String getEndpointParam(String configKey, EndpointConfig endpointConfig, String param, ClowderConfigSource configSource, String requestedEndpoint, String endpointType) {
         switch (param) {
             case CLOWDER_ENDPOINTS_PARAM_URL:
                 if (usesTls(endpointConfig)) {
-                    return String.format("https://%s:%s", endpointConfig.hostname, endpointConfig.tlsPort);
+                    return "https://" + endpointConfig.hostname + ":" + endpointConfig.tlsPort;
                 } else {
-                    return String.format("http://%s:%s", endpointConfig.hostname, endpointConfig.port);
+                    return "http://" + endpointConfig.hostname + ":" + endpointConfig.port;
                 }
             case CLOWDER_ENDPOINTS_PARAM_TRUST_STORE_PATH:
                 if (usesTls(endpointConfig)) {
@@ -113,13 +226,83 @@ public class EndpointsClowderPropertyHandler extends ClowderPropertyHandler {
                     return configSource.getTrustStoreType();
                 }
 
+                return null;
+            case CLOWDER_ENDPOINTS_PARAM_CONNECTION_POOL_SIZE:
+                return CONNECTION_POOL_SIZE_VALUE;
+            case CLOWDER_ENDPOINTS_PARAM_KEEP_ALIVE_ENABLED:
+                return "true";
+            case CLOWDER_ENDPOINTS_PARAM_HTTP2:
+                // HTTP/2 is negotiated through ALPN, cleartext endpoints stay on HTTP/1.1
+                return String.valueOf(usesTls(endpointConfig));
+            case CLOWDER_ENDPOINTS_PARAM_CONNECT_TIMEOUT:
+                return CONNECT_TIMEOUT_VALUE;
+            case CLOWDER_ENDPOINTS_PARAM_READ_TIMEOUT:
+                return READ_TIMEOUT_VALUE;
+            case CLOWDER_ENDPOINTS_PARAM_TLS_CONFIGURATION_NAME:
+                if (usesTls(endpointConfig)) {
+                    return tlsConfigurationName;
+                }
+
                 return null;
             default:
-                configSource.getLogger().warnf("%s '%s' requested an unknown param: '%s'", endpointType, requestedEndpoint, param);
+                configSource.getDiagnostics().logf(Logger.Level.WARN, configKey, "%s '%s' requested an unknown param: '%s'", endpointType, requestedEndpoint, param);
                 return null;
         }
     }
 
+    /**
+     * Serves {@code quarkus.rest-client."<app>-<name>".<param>} from the matching Clowder endpoint.
+     * The URL and the trust store always come from Clowder, the application can still override
+     * the connection settings.
+     */
+    private String handleRestClient(String property, ClowderConfigSource configSource) {
+        String item = property.substring(QUARKUS_REST_CLIENT.length());
+        int nameEnd = item.startsWith("\"") ? item.indexOf("\".", 1) + 1 : item.indexOf('.');
+        if (nameEnd <= 0 || clowderConfig.endpoints == null) {
+            return configSource.getExistingValue(property);
+        }
+
+        String clientName = item.startsWith("\"") ? item.substring(1, nameEnd - 1) : item.substring(0, nameEnd);
+        String restClientParam = item.substring(nameEnd + 1);
+        String param = REST_CLIENT_PARAMS.get(restClientParam);
+        EndpointConfig endpointConfig = findEndpoint(clowderConfig.endpoints, clientName);
+        if (param == null || endpointConfig == null) {
+            return configSource.getExistingValue(property);
+        }
+
+        if (!param.equals(CLOWDER_ENDPOINTS_PARAM_URL) && !REST_CLIENT_TLS_PARAMS.contains(restClientParam)) {
+            String existing = configSource.getExistingValue(property);
+            if (existing != null) {
+                return existing;
+            }
+        }
+
+        return getEndpointParam(property, endpointConfig, param, configSource, clientName, "Endpoint");
+    }
+
+    private EndpointConfig findEndpoint(List<? extends EndpointConfig> endpoints, String requestedEndpoint) {
+        for (final EndpointConfig configCandidate : endpoints) {
+            if (matches(configCandidate, requestedEndpoint)) {
+                return configCandidate;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Whether the endpoint is {@code <app>-<name>}, without building that string for every
+     * endpoint of the lookup.
+     */
+    private static boolean matches(EndpointConfig endpointConfig, String requestedEndpoint) {
+        String app = String.valueOf(endpointConfig.app);
+        String name = String.valueOf(endpointConfig.name);
+        return requestedEndpoint.length() == app.length() + 1 + name.length()
+                && requestedEndpoint.startsWith(app)
+                && requestedEndpoint.charAt(app.length()) == '-'
+                && requestedEndpoint.endsWith(name);
+    }
+
     private boolean usesTls(EndpointConfig endpointConfig) {
         return endpointConfig.tlsPort != null && !endpointConfig.tlsPort.equals(PORT_NOT_SET);
     }
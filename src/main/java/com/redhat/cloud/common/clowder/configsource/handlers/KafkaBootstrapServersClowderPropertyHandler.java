@@ -3,35 +3,145 @@ package com.redhat.cloud.common.clowder.configsource.handlers;
 import com.redhat.cloud.common.clowder.configsource.BrokerConfig;
 import com.redhat.cloud.common.clowder.configsource.ClowderConfig;
 import com.redhat.cloud.common.clowder.configsource.ClowderConfigSource;
+import com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.KAFKA_CLIENT_RACK;
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.KAFKA_CLIENT_RACK_FILE;
 
 public class KafkaBootstrapServersClowderPropertyHandler extends ClowderPropertyHandler {
 
     private static final String KAFKA_BOOTSTRAP_SERVERS = "kafka.bootstrap.servers";
     private static final String CAMEL_KAFKA_BROKERS = "camel.component.kafka.brokers";
+    private static final String KAFKA_CLIENT_RACK_KEY = "kafka.client.rack";
+    private static final String CAMEL_KAFKA_CLIENT_RACK_KEY = "camel.component.kafka.additional-properties[client.rack]";
+    private static final List<String> CLIENT_RACK_KEYS = List.of(KAFKA_CLIENT_RACK_KEY, CAMEL_KAFKA_CLIENT_RACK_KEY);
+    public static final List<String> PREFIXES = List.of("kafka.", "camel.component.kafka.");
+    public static final List<String> SECTIONS = List.of("kafka");
+
+    private final String clientRack;
 
     public KafkaBootstrapServersClowderPropertyHandler(ClowderConfig clowderConfig) {
+        this(clowderConfig, new ClowderConfigSourceOptions(Map.of()));
+    }
+
+    public KafkaBootstrapServersClowderPropertyHandler(ClowderConfig clowderConfig, ClowderConfigSourceOptions options) {
         super(clowderConfig);
+        this.clientRack = readClientRack(options);
+    }
+
+    @Override
+    public List<String> provides() {
+        if (clientRack != null && clowderConfig.kafka != null) {
+            return CLIENT_RACK_KEYS;
+        }
+
+        return List.of();
+    }
+
+    @Override
+    public PropertyAvailability availability(String property) {
+        return PropertyAvailability.availableIf(clientRack != null && clowderConfig.kafka != null);
     }
 
     @Override
     public boolean handles(String property) {
-        return property.equals(KAFKA_BOOTSTRAP_SERVERS) || property.equals(CAMEL_KAFKA_BROKERS);
+        return property.equals(KAFKA_BOOTSTRAP_SERVERS) || property.equals(CAMEL_KAFKA_BROKERS)
+                || CLIENT_RACK_KEYS.contains(property);
     }
 
     @Override
     public String handle(String property, ClowderConfigSource configSource) {
         if (clowderConfig.kafka == null) {
             throw new IllegalStateException("Kafka base object not present, can't set Kafka values");
-        } else {
-            StringBuilder sb = new StringBuilder();
-            for (BrokerConfig broker: clowderConfig.kafka.brokers) {
-                if (!sb.isEmpty()) {
-                    sb.append(',');
+        }
+
+        if (CLIENT_RACK_KEYS.contains(property)) {
+            String existing = configSource.getExistingValue(property);
+            return existing != null ? existing : clientRack;
+        }
+
+        return bootstrapServers(clowderConfig.kafka.brokers, clientRack);
+    }
+
+    /**
+     * The {@code host:port} list of the brokers, shared with the clients which don't read the
+     * {@code kafka.*} keys (e.g. Kafka Streams).
+     */
+    static String bootstrapServers(List<BrokerConfig> brokers, String clientRack) {
+        StringBuilder sb = new StringBuilder();
+        for (BrokerConfig broker: sortBrokers(brokers, clientRack)) {
+            if (!sb.isEmpty()) {
+                sb.append(',');
+            }
+            sb.append(broker.hostname).append(":").append(broker.port);
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Puts the brokers of our own zone first, so that the initial metadata request doesn't
+     * cross zones. The sort is stable, the Clowder order is kept otherwise.
+     */
+    private static List<BrokerConfig> sortBrokers(List<BrokerConfig> brokers, String clientRack) {
+        if (clientRack == null) {
+            return brokers;
+        }
+
+        return brokers.stream()
+                .sorted(Comparator.comparing(broker -> !isInClientRack(broker, clientRack)))
+                .toList();
+    }
+
+    private static boolean isInClientRack(BrokerConfig broker, String clientRack) {
+        if (broker.rack != null) {
+            return broker.rack.equals(clientRack);
+        }
+        // Without a rack in the Clowder config, fall back to zone-qualified hostnames. Only a whole
+        // label matches, "us-east-1" must not match broker-0.us-east-1b.kafka.svc.
+        if (broker.hostname == null) {
+            return false;
+        }
+        for (String label : broker.hostname.split("\\.")) {
+            if (label.equals(clientRack)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The rack is the topology zone of the node, either given directly (usually through the
+     * ACG_KAFKA_CLIENT_RACK environment variable) or read from a file, e.g. one written by an
+     * init container from the node's topology.kubernetes.io/zone label.
+     */
+    static String readClientRack(ClowderConfigSourceOptions options) {
+        String rack = options.get(KAFKA_CLIENT_RACK, null);
+        if (rack == null) {
+            String rackFile = options.get(KAFKA_CLIENT_RACK_FILE, null);
+            if (rackFile != null) {
+                Path path = Path.of(rackFile);
+                if (Files.isReadable(path)) {
+                    try {
+                        rack = Files.readString(path);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Can't read the Kafka client rack from " + rackFile, e);
+                    }
                 }
-                sb.append(broker.hostname).append(":").append(broker.port);
             }
+        }
 
-            return sb.toString();
+        if (rack == null || rack.isBlank()) {
+            return null;
         }
+        return rack.trim();
     }
 }
@@ -3,10 +3,15 @@ package com.redhat.cloud.common.clowder.configsource.handlers;
 import com.redhat.cloud.common.clowder.configsource.BrokerConfig;
 import com.redhat.cloud.common.clowder.configsource.ClowderConfig;
 import com.redhat.cloud.common.clowder.configsource.ClowderConfigSource;
+import com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions;
+import com.redhat.cloud.common.clowder.configsource.SaslConfig;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Predicate;
 
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.EXPOSE_KAFKA_SSL_CONFIG_KEYS;
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.KAFKA_INLINE_TRUSTSTORE;
 import static com.redhat.cloud.common.clowder.configsource.utils.CertUtils.createTempCertFile;
 
 public class KafkaSecurityClowderPropertyHandler extends ClowderPropertyHandler {
@@ -16,11 +21,14 @@ public class KafkaSecurityClowderPropertyHandler extends ClowderPropertyHandler
     public static final String KAFKA_SECURITY_PROTOCOL_KEY = "kafka.security.protocol";
     public static final String KAFKA_SSL_TRUSTSTORE_LOCATION_KEY = "kafka.ssl.truststore.location";
     public static final String KAFKA_SSL_TRUSTSTORE_TYPE_KEY = "kafka.ssl.truststore.type";
+    public static final String KAFKA_SSL_TRUSTSTORE_CERTIFICATES_KEY = "kafka.ssl.truststore.certificates";
     public static final String CAMEL_KAFKA_SASL_JAAS_CONFIG_KEY = "camel.component.kafka.sasl-jaas-config";
     public static final String CAMEL_KAFKA_SASL_MECHANISM_KEY = "camel.component.kafka.sasl-mechanism";
     public static final String CAMEL_KAFKA_SECURITY_PROTOCOL_KEY = "camel.component.kafka.security-protocol";
     public static final String CAMEL_KAFKA_SSL_TRUSTSTORE_LOCATION_KEY = "camel.component.kafka.ssl-truststore-location";
     public static final String CAMEL_KAFKA_SSL_TRUSTSTORE_TYPE_KEY = "camel.component.kafka.ssl-truststore-type";
+    // The Camel component has no option for inline certificates, they go to the Kafka client as is
+    public static final String CAMEL_KAFKA_SSL_TRUSTSTORE_CERTIFICATES_KEY = "camel.component.kafka.additional-properties[ssl.truststore.certificates]";
     public static final String KAFKA_SSL_TRUSTSTORE_TYPE_VALUE = "PEM";
     private static final List<String> KAFKA_SASL_KEYS = List.of(
             KAFKA_SASL_JAAS_CONFIG_KEY,
@@ -42,43 +50,119 @@ public class KafkaSecurityClowderPropertyHandler extends ClowderPropertyHandler
             CAMEL_KAFKA_SSL_TRUSTSTORE_LOCATION_KEY,
             CAMEL_KAFKA_SSL_TRUSTSTORE_TYPE_KEY);
 
+    private static final List<String> KAFKA_SASL_INLINE_KEYS = List.of(
+            KAFKA_SASL_JAAS_CONFIG_KEY,
+            KAFKA_SASL_MECHANISM_KEY,
+            KAFKA_SECURITY_PROTOCOL_KEY,
+            KAFKA_SSL_TRUSTSTORE_CERTIFICATES_KEY,
+            KAFKA_SSL_TRUSTSTORE_TYPE_KEY,
+            CAMEL_KAFKA_SASL_JAAS_CONFIG_KEY,
+            CAMEL_KAFKA_SASL_MECHANISM_KEY,
+            CAMEL_KAFKA_SECURITY_PROTOCOL_KEY,
+            CAMEL_KAFKA_SSL_TRUSTSTORE_CERTIFICATES_KEY,
+            CAMEL_KAFKA_SSL_TRUSTSTORE_TYPE_KEY);
+
+    private static final List<String> KAFKA_SSL_INLINE_KEYS = List.of(
+            KAFKA_SECURITY_PROTOCOL_KEY,
+            KAFKA_SSL_TRUSTSTORE_CERTIFICATES_KEY,
+            KAFKA_SSL_TRUSTSTORE_TYPE_KEY,
+            CAMEL_KAFKA_SECURITY_PROTOCOL_KEY,
+            CAMEL_KAFKA_SSL_TRUSTSTORE_CERTIFICATES_KEY,
+            CAMEL_KAFKA_SSL_TRUSTSTORE_TYPE_KEY);
+    public static final List<String> PREFIXES = List.of("kafka.", "camel.component.kafka.");
+    public static final List<String> SECTIONS = List.of("kafka");
+
     private final boolean expose;
+    private final boolean inline;
     private final Optional<BrokerConfig> saslBroker;
     private final Optional<BrokerConfig> sslBroker;
 
     public KafkaSecurityClowderPropertyHandler(ClowderConfig clowderConfig, boolean expose) {
+        this(clowderConfig, expose, false);
+    }
+
+    public KafkaSecurityClowderPropertyHandler(ClowderConfig clowderConfig, ClowderConfigSourceOptions options) {
+        this(clowderConfig, options.isEnabled(EXPOSE_KAFKA_SSL_CONFIG_KEYS), options.isEnabled(KAFKA_INLINE_TRUSTSTORE));
+    }
+
+    private KafkaSecurityClowderPropertyHandler(ClowderConfig clowderConfig, boolean expose, boolean inline) {
         super(clowderConfig);
 
         this.expose = expose;
-        if (clowderConfig.kafka != null && clowderConfig.kafka.brokers != null) {
-            this.saslBroker = clowderConfig.kafka.brokers.stream()
-                    .filter(broker -> "sasl".equals(broker.authtype))
-                    .findAny();
-            this.sslBroker = clowderConfig.kafka.brokers.stream()
-                    .filter(broker -> "SSL".equals(broker.securityProtocol))
-                    .findAny();
-        } else {
-            this.saslBroker = Optional.empty();
-            this.sslBroker = Optional.empty();
+        this.inline = inline;
+        this.saslBroker = findSaslBroker(clowderConfig);
+        this.sslBroker = findSslBroker(clowderConfig);
+    }
+
+    /**
+     * The broker giving the SASL settings, which win over the SSL ones.
+     */
+    static Optional<BrokerConfig> findSaslBroker(ClowderConfig clowderConfig) {
+        return findBroker(clowderConfig, broker -> "sasl".equals(broker.authtype));
+    }
+
+    static Optional<BrokerConfig> findSslBroker(ClowderConfig clowderConfig) {
+        return findBroker(clowderConfig, broker -> "SSL".equals(broker.securityProtocol));
+    }
+
+    private static Optional<BrokerConfig> findBroker(ClowderConfig clowderConfig, Predicate<BrokerConfig> filter) {
+        if (clowderConfig.kafka == null || clowderConfig.kafka.brokers == null) {
+            return Optional.empty();
         }
+        return clowderConfig.kafka.brokers.stream()
+                .filter(filter)
+                .findAny();
     }
 
     @Override
     public List<String> provides() {
         if (expose) {
             if (sslBroker.isPresent()) {
-                return KAFKA_SSL_KEYS;
+                return inline ? KAFKA_SSL_INLINE_KEYS : KAFKA_SSL_KEYS;
             } else if (saslBroker.isPresent()) {
-                return KAFKA_SASL_KEYS;
+                return inline ? KAFKA_SASL_INLINE_KEYS : KAFKA_SASL_KEYS;
             }
         }
 
         return List.of();
     }
 
+    @Override
+    public PropertyAvailability availability(String property) {
+        if (clowderConfig.kafka == null) {
+            return PropertyAvailability.UNAVAILABLE;
+        }
+
+        // Same precedence as handle(): the SASL broker wins over the SSL one
+        if (saslBroker.isPresent()) {
+            BrokerConfig broker = saslBroker.get();
+            return PropertyAvailability.availableIf(switch (property) {
+                case KAFKA_SASL_JAAS_CONFIG_KEY, CAMEL_KAFKA_SASL_JAAS_CONFIG_KEY,
+                        KAFKA_SASL_MECHANISM_KEY, CAMEL_KAFKA_SASL_MECHANISM_KEY -> broker.sasl != null && isNotBlank(broker.sasl.saslMechanism);
+                case KAFKA_SECURITY_PROTOCOL_KEY, CAMEL_KAFKA_SECURITY_PROTOCOL_KEY -> broker.sasl != null && isNotBlank(broker.sasl.securityProtocol);
+                case KAFKA_SSL_TRUSTSTORE_LOCATION_KEY, CAMEL_KAFKA_SSL_TRUSTSTORE_LOCATION_KEY -> !inline && broker.cacert != null;
+                case KAFKA_SSL_TRUSTSTORE_CERTIFICATES_KEY, CAMEL_KAFKA_SSL_TRUSTSTORE_CERTIFICATES_KEY -> inline && broker.cacert != null;
+                case KAFKA_SSL_TRUSTSTORE_TYPE_KEY, CAMEL_KAFKA_SSL_TRUSTSTORE_TYPE_KEY -> true;
+                default -> false;
+            });
+        } else if (sslBroker.isPresent()) {
+            BrokerConfig broker = sslBroker.get();
+            return PropertyAvailability.availableIf(switch (property) {
+                case KAFKA_SECURITY_PROTOCOL_KEY, CAMEL_KAFKA_SECURITY_PROTOCOL_KEY -> isNotBlank(broker.securityProtocol);
+                case KAFKA_SSL_TRUSTSTORE_LOCATION_KEY, CAMEL_KAFKA_SSL_TRUSTSTORE_LOCATION_KEY -> !inline && broker.cacert != null;
+                case KAFKA_SSL_TRUSTSTORE_CERTIFICATES_KEY, CAMEL_KAFKA_SSL_TRUSTSTORE_CERTIFICATES_KEY -> inline && broker.cacert != null;
+                case KAFKA_SSL_TRUSTSTORE_TYPE_KEY, CAMEL_KAFKA_SSL_TRUSTSTORE_TYPE_KEY -> broker.cacert != null;
+                default -> false;
+            });
+        }
+
+        return PropertyAvailability.UNKNOWN;
+    }
+
     @Override
     public boolean handles(String property) {
-        return KAFKA_SSL_KEYS.contains(property) || KAFKA_SASL_KEYS.contains(property);
+        return KAFKA_SSL_KEYS.contains(property) || KAFKA_SASL_KEYS.contains(property)
+                || inline && (property.equals(KAFKA_SSL_TRUSTSTORE_CERTIFICATES_KEY) || property.equals(CAMEL_KAFKA_SSL_TRUSTSTORE_CERTIFICATES_KEY));
     }
 
     @Override
@@ -100,13 +184,9 @@ public class KafkaSecurityClowderPropertyHandler extends ClowderPropertyHandler
         switch (property) {
             case KAFKA_SASL_JAAS_CONFIG_KEY:
             case CAMEL_KAFKA_SASL_JAAS_CONFIG_KEY:
-                String username = saslBroker.get().sasl.username;
-                String password = saslBroker.get().sasl.password;
-                switch (saslBroker.get().sasl.saslMechanism) {
-                    case "PLAIN":
-                        return "org.apache.kafka.common.security.plain.PlainLoginModule required username=\"" + username + "\" password=\"" + password + "\";";
-                    case "SCRAM-SHA-512":
-                        return "org.apache.kafka.common.security.scram.ScramLoginModule required username=\"" + username + "\" password=\"" + password + "\";";
+                String jaasConfig = jaasConfig(saslBroker.get().sasl);
+                if (jaasConfig != null) {
+                    return jaasConfig;
                 }
             case KAFKA_SASL_MECHANISM_KEY:
             case CAMEL_KAFKA_SASL_MECHANISM_KEY:
@@ -116,7 +196,10 @@ public class KafkaSecurityClowderPropertyHandler extends ClowderPropertyHandler
                 return saslBroker.get().sasl.securityProtocol;
             case KAFKA_SSL_TRUSTSTORE_LOCATION_KEY:
             case CAMEL_KAFKA_SSL_TRUSTSTORE_LOCATION_KEY:
-                return createTempKafkaCertFile(saslBroker.get().cacert);
+                return getTruststoreLocation(property, saslBroker.get().cacert, configSource);
+            case KAFKA_SSL_TRUSTSTORE_CERTIFICATES_KEY:
+            case CAMEL_KAFKA_SSL_TRUSTSTORE_CERTIFICATES_KEY:
+                return saslBroker.get().cacert;
             case KAFKA_SSL_TRUSTSTORE_TYPE_KEY:
             case CAMEL_KAFKA_SSL_TRUSTSTORE_TYPE_KEY:
                 return KAFKA_SSL_TRUSTSTORE_TYPE_VALUE;
@@ -132,10 +215,13 @@ public class KafkaSecurityClowderPropertyHandler extends ClowderPropertyHandler
                 return sslBroker.get().securityProtocol;
             case KAFKA_SSL_TRUSTSTORE_LOCATION_KEY:
             case CAMEL_KAFKA_SSL_TRUSTSTORE_LOCATION_KEY:
-                return createTempKafkaCertFile(sslBroker.get().cacert);
+                return getTruststoreLocation(property, sslBroker.get().cacert, configSource);
+            case KAFKA_SSL_TRUSTSTORE_CERTIFICATES_KEY:
+            case CAMEL_KAFKA_SSL_TRUSTSTORE_CERTIFICATES_KEY:
+                return sslBroker.get().cacert;
             case KAFKA_SSL_TRUSTSTORE_TYPE_KEY:
             case CAMEL_KAFKA_SSL_TRUSTSTORE_TYPE_KEY:
-                if (configSource.getValue(KAFKA_SSL_TRUSTSTORE_LOCATION_KEY) != null) {
+                if (configSource.getValue(inline ? KAFKA_SSL_TRUSTSTORE_CERTIFICATES_KEY : KAFKA_SSL_TRUSTSTORE_LOCATION_KEY) != null) {
                     return KAFKA_SSL_TRUSTSTORE_TYPE_VALUE;
                 }
             default:
@@ -143,6 +229,35 @@ public class KafkaSecurityClowderPropertyHandler extends ClowderPropertyHandler
         }
     }
 
+    /**
+     * The JAAS login module configuration for the SASL mechanism, or {@code null} for an unknown mechanism.
+     */
+    static String jaasConfig(SaslConfig sasl) {
+        if (sasl.saslMechanism == null) {
+            return null;
+        }
+        return switch (sasl.saslMechanism) {
+            case "PLAIN" -> "org.apache.kafka.common.security.plain.PlainLoginModule required username=\"" + sasl.username + "\" password=\"" + sasl.password + "\";";
+            case "SCRAM-SHA-512" -> "org.apache.kafka.common.security.scram.ScramLoginModule required username=\"" + sasl.username + "\" password=\"" + sasl.password + "\";";
+            default -> null;
+        };
+    }
+
+    private static boolean isNotBlank(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    /**
+     * With an inline trust store the CA is given through the certificates keys, and the Kafka
+     * client refuses a location on top of it, so no file is written.
+     */
+    private String getTruststoreLocation(String property, String certData, ClowderConfigSource configSource) {
+        if (inline) {
+            return configSource.getExistingValue(property);
+        }
+        return createTempKafkaCertFile(certData);
+    }
+
     private String createTempKafkaCertFile(String certData) {
         return certData != null ? createTempCertFile("kafka-cacert", certData) : null;
     }
@@ -2,28 +2,213 @@ package com.redhat.cloud.common.clowder.configsource.handlers;
 
 import com.redhat.cloud.common.clowder.configsource.ClowderConfig;
 import com.redhat.cloud.common.clowder.configsource.ClowderConfigSource;
+import com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions;
 import com.redhat.cloud.common.clowder.configsource.TopicConfig;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.KAFKA_CONSUMER_PROFILE;
+import static com.redhat.cloud.common.clowder.configsource.utils.ContainerUtils.availableProcessors;
+
 public class MicroprofileMessagingClowderPropertyHandler extends ClowderPropertyHandler {
 
+    private static final String MP_MESSAGING = "mp.messaging";
+    private static final String MP_MESSAGING_INCOMING = "mp.messaging.incoming.";
+    private static final String TOPIC = ".topic";
+    private static final String TOPICS = ".topics";
+    private static final String PATTERN = ".pattern";
+    private static final String CONNECTOR = ".connector";
+    private static final String KAFKA_CONNECTOR = "smallrye-kafka";
+    private static final String PARTITIONS = "partitions";
+    private static final String MAX_POLL_RECORDS = "max.poll.records";
+    private static final String FETCH_MIN_BYTES = "fetch.min.bytes";
+    private static final String FETCH_MAX_WAIT_MS = "fetch.max.wait.ms";
+    private static final String MAX_QUEUE_SIZE_FACTOR = "max-queue-size-factor";
+    private static final List<String> CONSUMER_PROFILE_ITEMS = List.of(
+            PARTITIONS,
+            MAX_POLL_RECORDS,
+            FETCH_MIN_BYTES,
+            FETCH_MAX_WAIT_MS,
+            MAX_QUEUE_SIZE_FACTOR);
+    public static final List<String> PREFIXES = List.of(MP_MESSAGING);
+    public static final List<String> SECTIONS = List.of("kafka");
+
+    /**
+     * Consumer settings for the incoming Kafka channels. The concurrency (number of consumers
+     * per channel) scales with the CPUs of the container, the fetch settings trade latency for
+     * fewer and bigger fetches.
+     */
+    enum ConsumerProfile {
+        THROUGHPUT(2, 1000, 1024 * 1024, 500, 4),
+        BALANCED(1, 500, 64 * 1024, 100, 2),
+        LATENCY(1, 100, 1, 10, 1);
+
+        final int partitionsPerCpu;
+        final int maxPollRecords;
+        final int fetchMinBytes;
+        final int fetchMaxWaitMs;
+        final int maxQueueSizeFactor;
+
+        ConsumerProfile(int partitionsPerCpu, int maxPollRecords, int fetchMinBytes, int fetchMaxWaitMs, int maxQueueSizeFactor) {
+            this.partitionsPerCpu = partitionsPerCpu;
+            this.maxPollRecords = maxPollRecords;
+            this.fetchMinBytes = fetchMinBytes;
+            this.fetchMaxWaitMs = fetchMaxWaitMs;
+            this.maxQueueSizeFactor = maxQueueSizeFactor;
+        }
+
+        String getValue(String item) {
+            return switch (item) {
+                case PARTITIONS -> String.valueOf(partitionsPerCpu * availableProcessors());
+                case MAX_POLL_RECORDS -> String.valueOf(maxPollRecords);
+                case FETCH_MIN_BYTES -> String.valueOf(fetchMinBytes);
+                case FETCH_MAX_WAIT_MS -> String.valueOf(fetchMaxWaitMs);
+                case MAX_QUEUE_SIZE_FACTOR -> String.valueOf(maxQueueSizeFactor);
+                default -> null;
+            };
+        }
+    }
+
+    private final ConsumerProfile consumerProfile;
+    // The topic keys of the channels with pattern=true, found once so that a plain topic lookup doesn't allocate
+    private volatile Set<String> patternTopicKeys;
+
     public MicroprofileMessagingClowderPropertyHandler(ClowderConfig clowderConfig) {
+        this(clowderConfig, new ClowderConfigSourceOptions(Map.of()));
+    }
+
+    public MicroprofileMessagingClowderPropertyHandler(ClowderConfig clowderConfig, ClowderConfigSourceOptions options) {
         super(clowderConfig);
+        String profile = options.get(KAFKA_CONSUMER_PROFILE, null);
+        if (profile == null || profile.isBlank()) {
+            this.consumerProfile = null;
+        } else {
+            try {
+                this.consumerProfile = ConsumerProfile.valueOf(profile.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("Unknown Kafka consumer profile '" + profile + "', expected one of throughput, balanced or latency");
+            }
+        }
+    }
+
+    @Override
+    public List<String> provides(ClowderConfigSource configSource) {
+        if (consumerProfile == null || clowderConfig.kafka == null) {
+            return List.of();
+        }
+
+        List<String> properties = new ArrayList<>();
+        for (String property : configSource.getPropertyNames()) {
+            if (property.startsWith(MP_MESSAGING_INCOMING) && property.endsWith(CONNECTOR)
+                    && KAFKA_CONNECTOR.equals(configSource.getExistingValue(property))) {
+                String channel = property.substring(0, property.length() - CONNECTOR.length() + 1);
+                for (String item : CONSUMER_PROFILE_ITEMS) {
+                    properties.add(channel + item);
+                }
+            }
+        }
+        return properties;
+    }
+
+    @Override
+    public PropertyAvailability availability(String property) {
+        // Only the consumer profile keys of Kafka channels are provided
+        return PropertyAvailability.availableIf(consumerProfile != null && clowderConfig.kafka != null);
     }
 
     @Override
     public boolean handles(String property) {
-        return property.startsWith("mp.messaging") && property.endsWith(".topic");
+        // The pattern flags tell which topics are regular expressions
+        if (property.startsWith(MP_MESSAGING)
+                && (property.endsWith(TOPIC) || property.endsWith(TOPICS) || property.endsWith(PATTERN))) {
+            return true;
+        }
+
+        // The connectors tell which incoming channels are Kafka consumers
+        return consumerProfile != null && property.startsWith(MP_MESSAGING_INCOMING)
+                && (property.endsWith(CONNECTOR) || getConsumerProfileItem(property) != null);
     }
 
     @Override
     public String handle(String property, ClowderConfigSource configSource) {
+        if (property.endsWith(PATTERN)) {
+            return configSource.getExistingValue(property);
+        }
+
+        // The connectors and the consumer profile items don't need the Kafka section
+        if (!property.endsWith(TOPIC) && !property.endsWith(TOPICS)) {
+            return handleConsumerProfileItem(property, configSource);
+        }
+
         if (clowderConfig.kafka == null) {
             throw new IllegalStateException("Kafka base object not present, can't set Kafka values");
         }
-        // We need to find the replaced topic by first finding
-        // the requested name and then getting the replaced name
+
+        if (property.endsWith(TOPIC)) {
+            String requested = configSource.getExistingValue(property);
+            if (getPatternTopicKeys(configSource).contains(property)) {
+                return translatePattern(requested);
+            }
+            return translateTopic(clowderConfig.kafka.topics, requested);
+        }
+
         String requested = configSource.getExistingValue(property);
-        for (TopicConfig topic : clowderConfig.kafka.topics) {
+        if (requested == null) {
+            return null;
+        }
+        List<String> topics = new ArrayList<>();
+        for (String topic : requested.split(",")) {
+            if (!topic.isBlank()) {
+                topics.add(translateTopic(clowderConfig.kafka.topics, topic.trim()));
+            }
+        }
+        return String.join(",", topics);
+    }
+
+    private String handleConsumerProfileItem(String property, ClowderConfigSource configSource) {
+        String existing = configSource.getExistingValue(property);
+        String item = getConsumerProfileItem(property);
+        if (existing != null || item == null || consumerProfile == null || clowderConfig.kafka == null) {
+            return existing;
+        }
+        String connector = property.substring(0, property.length() - item.length() - 1) + CONNECTOR;
+        if (!KAFKA_CONNECTOR.equals(configSource.getExistingValue(connector))) {
+            return null;
+        }
+        return consumerProfile.getValue(item);
+    }
+
+    private Set<String> getPatternTopicKeys(ClowderConfigSource configSource) {
+        Set<String> keys = patternTopicKeys;
+        if (keys == null) {
+            Set<String> found = new HashSet<>();
+            for (String property : configSource.getPropertyNames()) {
+                if (property.startsWith(MP_MESSAGING) && property.endsWith(PATTERN)
+                        && Boolean.parseBoolean(configSource.getExistingValue(property))) {
+                    found.add(property.substring(0, property.length() - PATTERN.length()) + TOPIC);
+                }
+            }
+            // Computing it twice concurrently gives the same set
+            keys = Set.copyOf(found);
+            patternTopicKeys = keys;
+        }
+        return keys;
+    }
+
+    /**
+     * We need to find the replaced topic by first finding
+     * the requested name and then getting the replaced name.
+     */
+    static String translateTopic(List<TopicConfig> topics, String requested) {
+        for (TopicConfig topic : topics) {
             if (topic.requestedName.equals(requested)) {
                 return topic.name;
             }
@@ -31,4 +216,42 @@ public class MicroprofileMessagingClowderPropertyHandler extends ClowderProperty
 
         return requested;
     }
+
+    /**
+     * A pattern subscription is written against the requested names, so it is replaced by an
+     * alternation of the names Clowder gave to the matching topics. The pattern is kept when it
+     * matches none of them.
+     */
+    private String translatePattern(String requested) {
+        if (requested == null) {
+            return null;
+        }
+
+        Pattern pattern;
+        try {
+            pattern = Pattern.compile(requested);
+        } catch (PatternSyntaxException e) {
+            // Let the Kafka connector report the invalid pattern
+            return requested;
+        }
+
+        Set<String> names = new LinkedHashSet<>();
+        for (TopicConfig topic : clowderConfig.kafka.topics) {
+            // Kafka matches the whole topic name against the pattern
+            if (pattern.matcher(topic.requestedName).matches()) {
+                names.add(topic.name.replace(".", "\\."));
+            }
+        }
+
+        return names.isEmpty() ? requested : String.join("|", names);
+    }
+
+    private static String getConsumerProfileItem(String property) {
+        for (String item : CONSUMER_PROFILE_ITEMS) {
+            if (property.endsWith("." + item)) {
+                return item;
+            }
+        }
+        return null;
+    }
 }
@@ -2,26 +2,36 @@ package com.redhat.cloud.common.clowder.configsource.handlers;
 
 import com.redhat.cloud.common.clowder.configsource.ClowderConfig;
 import com.redhat.cloud.common.clowder.configsource.ClowderConfigSource;
+import com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions;
+import org.jboss.logging.Logger;
+
+import java.util.List;
 
 public class OptionalEndpointsClowderPropertyHandler extends EndpointsClowderPropertyHandler {
 
     private static final String CLOWDER_OPTIONAL_ENDPOINTS = "clowder.optional-endpoints.";
+    public static final List<String> PREFIXES = List.of(CLOWDER_OPTIONAL_ENDPOINTS);
+    public static final List<String> SECTIONS = List.of("endpoints", "tlsCAPath");
 
     public OptionalEndpointsClowderPropertyHandler(ClowderConfig clowderConfig) {
         super(clowderConfig);
     }
 
+    public OptionalEndpointsClowderPropertyHandler(ClowderConfig clowderConfig, ClowderConfigSourceOptions options) {
+        super(clowderConfig, false, QuarkusTlsRegistryClowderPropertyHandler.configurationName(options));
+    }
+
     @Override
     public String handle(String property, ClowderConfigSource configSource) {
         try {
             if (clowderConfig.endpoints == null) {
-                configSource.getLogger().infof("No endpoints section found. Returning empty string for the \"%s\" configuration key", property);
+                configSource.getDiagnostics().logf(Logger.Level.INFO, property, "No endpoints section found. Returning empty string for the \"%s\" configuration key", property);
                 return "";
             }
 
             return processEndpoints(property, configSource, clowderConfig.endpoints, "Endpoint");
         } catch (final IllegalStateException e) {
-            configSource.getLogger().errorf("Failed to load config key '%s' from the Clowder configuration: %s", property, e.getMessage());
+            configSource.getDiagnostics().logf(Logger.Level.ERROR, property, "Failed to load config key '%s' from the Clowder configuration: %s", property, e.getMessage());
             throw e;
         }
     }
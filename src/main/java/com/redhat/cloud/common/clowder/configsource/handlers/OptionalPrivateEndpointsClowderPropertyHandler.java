@@ -2,26 +2,36 @@ package com.redhat.cloud.common.clowder.configsource.handlers;
 
 import com.redhat.cloud.common.clowder.configsource.ClowderConfig;
 import com.redhat.cloud.common.clowder.configsource.ClowderConfigSource;
+import com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions;
+import org.jboss.logging.Logger;
+
+import java.util.List;
 
 public class OptionalPrivateEndpointsClowderPropertyHandler extends EndpointsClowderPropertyHandler {
 
     private static final String CLOWDER_OPTIONAL_PRIVATE_ENDPOINTS = "clowder.optional-private-endpoints.";
+    public static final List<String> PREFIXES = List.of(CLOWDER_OPTIONAL_PRIVATE_ENDPOINTS);
+    public static final List<String> SECTIONS = List.of("privateEndpoints", "tlsCAPath");
 
     public OptionalPrivateEndpointsClowderPropertyHandler(ClowderConfig clowderConfig) {
         super(clowderConfig);
     }
 
+    public OptionalPrivateEndpointsClowderPropertyHandler(ClowderConfig clowderConfig, ClowderConfigSourceOptions options) {
+        super(clowderConfig, false, QuarkusTlsRegistryClowderPropertyHandler.configurationName(options));
+    }
+
     @Override
     public String handle(String property, ClowderConfigSource configSource) {
         try {
             if (clowderConfig.privateEndpoints == null) {
-                configSource.getLogger().infof("No private endpoints section found. Returning empty string for the \"%s\" configuration key", property);
+                configSource.getDiagnostics().logf(Logger.Level.INFO, property, "No private endpoints section found. Returning empty string for the \"%s\" configuration key", property);
                 return "";
             }
 
             return this.processEndpoints(property, configSource, clowderConfig.privateEndpoints, "Private endpoint");
         } catch (IllegalStateException e) {
-            configSource.getLogger().errorf("Failed to load config key '%s' from the Clowder configuration: %s", property, e.getMessage());
+            configSource.getDiagnostics().logf(Logger.Level.ERROR, property, "Failed to load config key '%s' from the Clowder configuration: %s", property, e.getMessage());
             throw e;
         }
     }
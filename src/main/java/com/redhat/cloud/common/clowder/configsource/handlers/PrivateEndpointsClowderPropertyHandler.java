@@ -2,15 +2,25 @@ package com.redhat.cloud.common.clowder.configsource.handlers;
 
 import com.redhat.cloud.common.clowder.configsource.ClowderConfig;
 import com.redhat.cloud.common.clowder.configsource.ClowderConfigSource;
+import com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions;
+import org.jboss.logging.Logger;
+
+import java.util.List;
 
 public class PrivateEndpointsClowderPropertyHandler extends EndpointsClowderPropertyHandler {
 
     private static final String CLOWDER_PRIVATE_ENDPOINTS = "clowder.private-endpoints.";
+    public static final List<String> PREFIXES = List.of(CLOWDER_PRIVATE_ENDPOINTS);
+    public static final List<String> SECTIONS = List.of("privateEndpoints", "tlsCAPath");
 
     public PrivateEndpointsClowderPropertyHandler(ClowderConfig clowderConfig) {
         super(clowderConfig);
     }
 
+    public PrivateEndpointsClowderPropertyHandler(ClowderConfig clowderConfig, ClowderConfigSourceOptions options) {
+        super(clowderConfig, false, QuarkusTlsRegistryClowderPropertyHandler.configurationName(options));
+    }
+
     @Override
     public String handle(String property, ClowderConfigSource configSource) {
         try {
@@ -20,7 +30,7 @@ public class PrivateEndpointsClowderPropertyHandler extends EndpointsClowderProp
 
             return this.processEndpoints(property, configSource, clowderConfig.privateEndpoints, "Private endpoint");
         } catch (IllegalStateException e) {
-            configSource.getLogger().errorf("Failed to load config key '%s' from the Clowder configuration: %s", property, e.getMessage());
+            configSource.getDiagnostics().logf(Logger.Level.ERROR, property, "Failed to load config key '%s' from the Clowder configuration: %s", property, e.getMessage());
             throw e;
         }
     }
@@ -0,0 +1,26 @@
+package com.redhat.cloud.common.clowder.configsource.handlers;
+
+/**
+ * Whether a handler can provide a value for a property, see {@link ClowderPropertyHandler#availability(String)}.
+ */
+public enum PropertyAvailability {
+
+    /**
+     * The handler provides a non-blank value.
+     */
+    AVAILABLE,
+
+    /**
+     * The handler has no value, or would fail to compute it.
+     */
+    UNAVAILABLE,
+
+    /**
+     * The handler can't tell without computing the value.
+     */
+    UNKNOWN;
+
+    public static PropertyAvailability availableIf(boolean available) {
+        return available ? AVAILABLE : UNAVAILABLE;
+    }
+}
@@ -2,21 +2,78 @@ package com.redhat.cloud.common.clowder.configsource.handlers;
 
 import com.redhat.cloud.common.clowder.configsource.ClowderConfig;
 import com.redhat.cloud.common.clowder.configsource.ClowderConfigSource;
+import com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions;
 import com.redhat.cloud.common.clowder.configsource.DatabaseConfig;
 
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.DATABASE_DATASOURCES;
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.DATABASE_READ_REPLICA_DATASOURCES;
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.DATABASE_READ_REPLICA_HOSTNAMES;
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.REACTIVE_DATASOURCE_TUNING;
 import static com.redhat.cloud.common.clowder.configsource.utils.CertUtils.createTempCertFile;
+import static com.redhat.cloud.common.clowder.configsource.utils.ContainerUtils.defaultEventLoops;
 
 public class QuarkusDataSourceClowderPropertyHandler extends ClowderPropertyHandler {
 
     private static final String QUARKUS_DATASOURCE = "quarkus.datasource.";
-    private static final String QUARKUS_DATASOURCE_JDBC_URL = "quarkus.datasource.jdbc.url";
+    private static final String REACTIVE_MAX_SIZE = "reactive.max-size";
+    private static final String REACTIVE_EVENT_LOOP_SIZE = "reactive.event-loop-size";
+    private static final String REACTIVE_IDLE_TIMEOUT = "reactive.idle-timeout";
+    private static final String REACTIVE_CACHE_PREPARED_STATEMENTS = "reactive.cache-prepared-statements";
+    private static final String REACTIVE_PIPELINING_LIMIT = "reactive.postgresql.pipelining-limit";
+    private static final List<String> REACTIVE_TUNING_ITEMS = List.of(
+            REACTIVE_MAX_SIZE,
+            REACTIVE_EVENT_LOOP_SIZE,
+            REACTIVE_IDLE_TIMEOUT,
+            REACTIVE_CACHE_PREPARED_STATEMENTS,
+            REACTIVE_PIPELINING_LIMIT);
+    private static final int MIN_REACTIVE_POOL_SIZE = 4;
+    private static final String REACTIVE_IDLE_TIMEOUT_VALUE = "PT10M";
+    private static final int REACTIVE_PIPELINING_LIMIT_VALUE = 256;
+    public static final List<String> PREFIXES = List.of(QUARKUS_DATASOURCE);
+    public static final List<String> SECTIONS = List.of("database");
+
+    private final boolean reactiveTuning;
+    private final List<String> readReplicaHostnames;
+    private final List<String> readReplicaDatasources;
+    private final Set<String> clowderDatasources;
 
     public QuarkusDataSourceClowderPropertyHandler(ClowderConfig clowderConfig) {
+        this(clowderConfig, new ClowderConfigSourceOptions(Map.of()));
+    }
+
+    public QuarkusDataSourceClowderPropertyHandler(ClowderConfig clowderConfig, ClowderConfigSourceOptions options) {
         super(clowderConfig);
+        this.reactiveTuning = options.isEnabled(REACTIVE_DATASOURCE_TUNING);
+        this.readReplicaHostnames = options.getList(DATABASE_READ_REPLICA_HOSTNAMES);
+        this.readReplicaDatasources = options.getList(DATABASE_READ_REPLICA_DATASOURCES);
+        // The datasources routed to the read replicas are Clowder databases too
+        Set<String> datasources = new HashSet<>(options.getList(DATABASE_DATASOURCES));
+        datasources.addAll(readReplicaDatasources);
+        this.clowderDatasources = Set.copyOf(datasources);
+    }
+
+    @Override
+    public List<String> provides() {
+        if (reactiveTuning) {
+            return REACTIVE_TUNING_ITEMS.stream()
+                    .map(item -> QUARKUS_DATASOURCE + item)
+                    .toList();
+        }
+
+        return List.of();
+    }
+
+    @Override
+    public PropertyAvailability availability(String property) {
+        return PropertyAvailability.availableIf(clowderConfig.database != null);
     }
 
     @Override
@@ -26,11 +83,29 @@ public class QuarkusDataSourceClowderPropertyHandler extends ClowderPropertyHand
 
     @Override
     public String handle(String property, ClowderConfigSource configSource) {
+        // Named datasources use quoted names: quarkus.datasource."name".jdbc.url
+        // Clowder only provides a single database section, so only the listed ones are mapped to it,
+        // the others may be databases Clowder doesn't manage.
+        String item = property.substring(QUARKUS_DATASOURCE.length());
+        String datasourceName = null;
+        if (item.startsWith("\"")) {
+            int nameEnd = item.indexOf("\".", 1);
+            if (nameEnd < 0) {
+                return configSource.getExistingValue(property);
+            }
+            datasourceName = item.substring(1, nameEnd);
+            if (!clowderDatasources.contains(datasourceName)) {
+                return configSource.getExistingValue(property);
+            }
+            item = item.substring(nameEnd + 2);
+        }
         if (clowderConfig.database == null) {
             throw new IllegalStateException("No database section found");
         }
+        boolean readReplica = datasourceName != null
+                && !readReplicaHostnames.isEmpty()
+                && readReplicaDatasources.contains(datasourceName);
 
-        String item = property.substring(QUARKUS_DATASOURCE.length());
         if (item.equals("username")) {
             return clowderConfig.database.username;
         }
@@ -43,9 +118,9 @@ public class QuarkusDataSourceClowderPropertyHandler extends ClowderPropertyHand
         }
 
         if (item.equals("jdbc.url")) {
-            String hostPortDb = getHostPortDb(clowderConfig.database);
+            String hostPortDb = readReplica ? getMultiHostPortDb(clowderConfig.database) : getHostPortDb(clowderConfig.database);
             String tracing = "";
-            String jdbcUrl = configSource.getExistingValue(QUARKUS_DATASOURCE_JDBC_URL);
+            String jdbcUrl = configSource.getExistingValue(property);
             Map<String, String> params = new LinkedHashMap<>();
 
             if (jdbcUrl != null) {
@@ -75,6 +150,11 @@ public class QuarkusDataSourceClowderPropertyHandler extends ClowderPropertyHand
             if (verifyFull) {
                 params.put("sslrootcert", createTempRdsCertFile(clowderConfig.database.rdsCa));
             }
+            if (readReplica) {
+                // Prefer the replicas and spread the connections over them, the primary is only used as a fallback.
+                params.put("targetServerType", "preferSecondary");
+                params.put("loadBalanceHosts", "true");
+            }
             if (!params.isEmpty()) {
                 StringBuilder builder = new StringBuilder();
                 params.keySet().forEach(x -> builder.append(String.format("%s=%s&", x, params.get(x))));
@@ -85,6 +165,12 @@ public class QuarkusDataSourceClowderPropertyHandler extends ClowderPropertyHand
         }
         if (item.startsWith("reactive.")) {
             if (item.equals("reactive.url")) {
+                if (readReplica) {
+                    // The reactive client has no multi-host support but round-robins over a list of URLs.
+                    return readReplicaHostnames.stream()
+                            .map(hostname -> getHostPortDb(hostname, clowderConfig.database))
+                            .collect(Collectors.joining(","));
+                }
                 return getHostPortDb(clowderConfig.database);
             }
             if (item.equals("reactive.postgresql.ssl-mode")) {
@@ -101,18 +187,51 @@ public class QuarkusDataSourceClowderPropertyHandler extends ClowderPropertyHand
                     return createTempRdsCertFile(clowderConfig.database.rdsCa);
                 }
             }
+            if (reactiveTuning && REACTIVE_TUNING_ITEMS.contains(item)) {
+                String existing = configSource.getExistingValue(property);
+                return existing != null ? existing : getReactiveTuningValue(item);
+            }
         }
 
         return configSource.getExistingValue(property);
     }
 
+    /**
+     * Sizes the reactive pool from the event loops Quarkus creates for the container: one
+     * connection per event loop, with pipelining multiplexing the queries sent on it.
+     */
+    private String getReactiveTuningValue(String item) {
+        int eventLoops = defaultEventLoops();
+        return switch (item) {
+            case REACTIVE_MAX_SIZE -> String.valueOf(Math.max(MIN_REACTIVE_POOL_SIZE, eventLoops));
+            case REACTIVE_EVENT_LOOP_SIZE -> String.valueOf(eventLoops);
+            case REACTIVE_IDLE_TIMEOUT -> REACTIVE_IDLE_TIMEOUT_VALUE;
+            case REACTIVE_CACHE_PREPARED_STATEMENTS -> "true";
+            case REACTIVE_PIPELINING_LIMIT -> String.valueOf(REACTIVE_PIPELINING_LIMIT_VALUE);
+            default -> null;
+        };
+    }
+
     private String getHostPortDb(DatabaseConfig database) {
+        return getHostPortDb(database.hostname, database);
+    }
+
+    private String getHostPortDb(String hostname, DatabaseConfig database) {
         return String.format("postgresql://%s:%d/%s",
-                database.hostname,
+                hostname,
                 database.port,
                 database.name);
     }
 
+    private String getMultiHostPortDb(DatabaseConfig database) {
+        StringBuilder hosts = new StringBuilder();
+        hosts.append(database.hostname).append(':').append(database.port);
+        for (String hostname : readReplicaHostnames) {
+            hosts.append(',').append(hostname).append(':').append(database.port);
+        }
+        return String.format("postgresql://%s/%s", hosts, database.name);
+    }
+
     private String createTempRdsCertFile(String certData) {
         if (certData != null) {
             return createTempCertFile("rds-ca-root", certData);
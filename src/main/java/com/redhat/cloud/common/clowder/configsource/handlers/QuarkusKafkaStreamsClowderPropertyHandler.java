@@ -0,0 +1,204 @@
+package com.redhat.cloud.common.clowder.configsource.handlers;
+
+import com.redhat.cloud.common.clowder.configsource.BrokerConfig;
+import com.redhat.cloud.common.clowder.configsource.ClowderConfig;
+import com.redhat.cloud.common.clowder.configsource.ClowderConfigSource;
+import com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions;
+import com.redhat.cloud.common.clowder.configsource.SaslConfig;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.KAFKA_INLINE_TRUSTSTORE;
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.KAFKA_STREAMS_STATE_DIR;
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.KAFKA_STREAMS_TUNING;
+import static com.redhat.cloud.common.clowder.configsource.handlers.KafkaSecurityClowderPropertyHandler.KAFKA_SSL_TRUSTSTORE_TYPE_VALUE;
+import static com.redhat.cloud.common.clowder.configsource.utils.CertUtils.createTempCertFile;
+import static com.redhat.cloud.common.clowder.configsource.utils.ContainerUtils.availableProcessors;
+
+/**
+ * Maps the Kafka section to the Quarkus Kafka Streams extension, which doesn't read the {@code kafka.*} keys.
+ */
+public class QuarkusKafkaStreamsClowderPropertyHandler extends ClowderPropertyHandler {
+
+    private static final String QUARKUS_KAFKA_STREAMS = "quarkus.kafka-streams.";
+    // Quarkus passes the keys with this prefix to Kafka Streams as is
+    private static final String KAFKA_STREAMS = "kafka-streams.";
+    public static final String BOOTSTRAP_SERVERS_KEY = QUARKUS_KAFKA_STREAMS + "bootstrap-servers";
+    public static final String TOPICS_KEY = QUARKUS_KAFKA_STREAMS + "topics";
+    public static final String SECURITY_PROTOCOL_KEY = QUARKUS_KAFKA_STREAMS + "security.protocol";
+    public static final String SASL_MECHANISM_KEY = QUARKUS_KAFKA_STREAMS + "sasl.mechanism";
+    public static final String SASL_JAAS_CONFIG_KEY = QUARKUS_KAFKA_STREAMS + "sasl.jaas-config";
+    public static final String SSL_TRUSTSTORE_LOCATION_KEY = QUARKUS_KAFKA_STREAMS + "ssl.truststore.location";
+    public static final String SSL_TRUSTSTORE_TYPE_KEY = QUARKUS_KAFKA_STREAMS + "ssl.truststore.type";
+    public static final String SSL_TRUSTSTORE_CERTIFICATES_KEY = QUARKUS_KAFKA_STREAMS + "ssl.truststore.certificates";
+    public static final String NUM_STREAM_THREADS_KEY = KAFKA_STREAMS + "num.stream.threads";
+    public static final String STATE_DIR_KEY = KAFKA_STREAMS + "state.dir";
+    public static final String CACHE_MAX_BYTES_BUFFERING_KEY = KAFKA_STREAMS + "cache.max.bytes.buffering";
+    private static final List<String> CLOWDER_KEYS = List.of(
+            BOOTSTRAP_SERVERS_KEY,
+            TOPICS_KEY,
+            SECURITY_PROTOCOL_KEY,
+            SASL_MECHANISM_KEY,
+            SASL_JAAS_CONFIG_KEY,
+            SSL_TRUSTSTORE_LOCATION_KEY,
+            SSL_TRUSTSTORE_TYPE_KEY,
+            SSL_TRUSTSTORE_CERTIFICATES_KEY);
+    private static final List<String> TUNING_KEYS = List.of(
+            NUM_STREAM_THREADS_KEY,
+            STATE_DIR_KEY,
+            CACHE_MAX_BYTES_BUFFERING_KEY);
+    // The Kafka Streams default, kept as the lower bound
+    private static final long MIN_CACHE_BYTES = 10 * 1024 * 1024;
+    // The record cache is on the heap, shared by all the stream threads
+    private static final int HEAP_FRACTION_FOR_CACHE = 16;
+    public static final List<String> PREFIXES = List.of(QUARKUS_KAFKA_STREAMS, KAFKA_STREAMS);
+    public static final List<String> SECTIONS = List.of("kafka");
+
+    private final boolean inline;
+    private final boolean tuning;
+    private final String stateDir;
+    private final String clientRack;
+    private final Optional<BrokerConfig> saslBroker;
+    private final Optional<BrokerConfig> sslBroker;
+
+    public QuarkusKafkaStreamsClowderPropertyHandler(ClowderConfig clowderConfig) {
+        this(clowderConfig, new ClowderConfigSourceOptions(Map.of()));
+    }
+
+    public QuarkusKafkaStreamsClowderPropertyHandler(ClowderConfig clowderConfig, ClowderConfigSourceOptions options) {
+        super(clowderConfig);
+        this.inline = options.isEnabled(KAFKA_INLINE_TRUSTSTORE);
+        this.tuning = options.isEnabled(KAFKA_STREAMS_TUNING);
+        String dir = options.get(KAFKA_STREAMS_STATE_DIR, null);
+        this.stateDir = dir == null || dir.isBlank() ? null : dir.trim();
+        this.clientRack = KafkaBootstrapServersClowderPropertyHandler.readClientRack(options);
+        this.saslBroker = KafkaSecurityClowderPropertyHandler.findSaslBroker(clowderConfig);
+        this.sslBroker = KafkaSecurityClowderPropertyHandler.findSslBroker(clowderConfig);
+    }
+
+    @Override
+    public List<String> provides() {
+        if (!tuning || clowderConfig.kafka == null) {
+            return List.of();
+        }
+
+        List<String> properties = new ArrayList<>(TUNING_KEYS);
+        if (stateDir == null) {
+            properties.remove(STATE_DIR_KEY);
+        }
+        return properties;
+    }
+
+    @Override
+    public PropertyAvailability availability(String property) {
+        if (clowderConfig.kafka == null) {
+            return PropertyAvailability.UNAVAILABLE;
+        }
+
+        return switch (property) {
+            case NUM_STREAM_THREADS_KEY, CACHE_MAX_BYTES_BUFFERING_KEY -> PropertyAvailability.availableIf(tuning);
+            case STATE_DIR_KEY -> PropertyAvailability.availableIf(tuning && stateDir != null);
+            default -> PropertyAvailability.UNKNOWN;
+        };
+    }
+
+    /**
+     * Quarkus looks the Kafka Streams keys up by name, so any key of the extension set by the
+     * application (e.g. the application id) makes the handler needed.
+     */
+    @Override
+    public boolean handles(String property) {
+        return property.startsWith(QUARKUS_KAFKA_STREAMS) || (tuning && TUNING_KEYS.contains(property));
+    }
+
+    @Override
+    public String handle(String property, ClowderConfigSource configSource) {
+        if (!CLOWDER_KEYS.contains(property) && !TUNING_KEYS.contains(property)) {
+            return configSource.getExistingValue(property);
+        }
+
+        if (clowderConfig.kafka == null) {
+            configSource.getDiagnostics().logf(Logger.Level.WARN, property, "No kafka section found in Clowder configuration, fallback to existing value for \"%s\" configuration key.", property);
+            return configSource.getExistingValue(property);
+        }
+
+        if (TUNING_KEYS.contains(property)) {
+            String existing = configSource.getExistingValue(property);
+            return existing != null ? existing : getTuningValue(property);
+        }
+
+        return switch (property) {
+            case BOOTSTRAP_SERVERS_KEY -> KafkaBootstrapServersClowderPropertyHandler.bootstrapServers(clowderConfig.kafka.brokers, clientRack);
+            case TOPICS_KEY -> translateTopics(configSource.getExistingValue(property));
+            default -> handleSecurityKey(property, configSource);
+        };
+    }
+
+    /**
+     * The topics Kafka Streams waits for before starting, listed with their requested names.
+     */
+    private String translateTopics(String requested) {
+        if (requested == null) {
+            return null;
+        }
+        List<String> topics = new ArrayList<>();
+        for (String topic : requested.split(",")) {
+            if (!topic.isBlank()) {
+                topics.add(MicroprofileMessagingClowderPropertyHandler.translateTopic(clowderConfig.kafka.topics, topic.trim()));
+            }
+        }
+        return String.join(",", topics);
+    }
+
+    /**
+     * Same precedence as {@link KafkaSecurityClowderPropertyHandler}: the SASL broker wins over the SSL one.
+     * A SASL broker without SASL settings leaves the SASL keys to the application.
+     */
+    private String handleSecurityKey(String property, ClowderConfigSource configSource) {
+        BrokerConfig broker = saslBroker.or(() -> sslBroker).orElse(null);
+        if (broker == null) {
+            return configSource.getExistingValue(property);
+        }
+
+        SaslConfig sasl = saslBroker.map(config -> config.sasl).orElse(null);
+        return switch (property) {
+            case SECURITY_PROTOCOL_KEY -> orExisting(sasl != null ? sasl.securityProtocol : broker.securityProtocol, property, configSource);
+            case SASL_MECHANISM_KEY -> orExisting(sasl != null ? sasl.saslMechanism : null, property, configSource);
+            case SASL_JAAS_CONFIG_KEY -> orExisting(sasl != null ? KafkaSecurityClowderPropertyHandler.jaasConfig(sasl) : null, property, configSource);
+            case SSL_TRUSTSTORE_LOCATION_KEY -> broker.cacert != null && !inline
+                    ? createTempCertFile("kafka-cacert", broker.cacert) : configSource.getExistingValue(property);
+            case SSL_TRUSTSTORE_CERTIFICATES_KEY -> broker.cacert != null && inline ? broker.cacert : configSource.getExistingValue(property);
+            case SSL_TRUSTSTORE_TYPE_KEY -> broker.cacert != null ? KAFKA_SSL_TRUSTSTORE_TYPE_VALUE : configSource.getExistingValue(property);
+            default -> configSource.getExistingValue(property);
+        };
+    }
+
+    private static String orExisting(String value, String property, ClowderConfigSource configSource) {
+        return value != null ? value : configSource.getExistingValue(property);
+    }
+
+    /**
+     * One stream thread per CPU of the container, and a record cache sized from the heap, which the
+     * JVM derives from the memory limit of the container.
+     */
+    private String getTuningValue(String property) {
+        return switch (property) {
+            case NUM_STREAM_THREADS_KEY -> String.valueOf(availableProcessors());
+            case STATE_DIR_KEY -> stateDir;
+            case CACHE_MAX_BYTES_BUFFERING_KEY -> String.valueOf(cacheMaxBytes(Runtime.getRuntime().maxMemory()));
+            default -> null;
+        };
+    }
+
+    static long cacheMaxBytes(long maxHeap) {
+        if (maxHeap == Long.MAX_VALUE) {
+            // No heap limit
+            return MIN_CACHE_BYTES;
+        }
+        return Math.max(MIN_CACHE_BYTES, maxHeap / HEAP_FRACTION_FOR_CACHE);
+    }
+}
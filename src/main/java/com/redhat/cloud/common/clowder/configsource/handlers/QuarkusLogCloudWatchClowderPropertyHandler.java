@@ -2,22 +2,89 @@ package com.redhat.cloud.common.clowder.configsource.handlers;
 
 import com.redhat.cloud.common.clowder.configsource.ClowderConfig;
 import com.redhat.cloud.common.clowder.configsource.ClowderConfigSource;
+import com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.CLOUDWATCH_BATCHING;
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.LOGGING_OVERFLOW;
 
 public class QuarkusLogCloudWatchClowderPropertyHandler extends ClowderPropertyHandler {
 
     private static final String QUARKUS_LOG_CLOUDWATCH = "quarkus.log.cloudwatch";
+    private static final String QUARKUS_LOG_CONSOLE_ASYNC = "quarkus.log.console.async";
+    private static final String QUARKUS_LOG_CONSOLE_ASYNC_QUEUE_LENGTH = "quarkus.log.console.async.queue-length";
+    private static final String QUARKUS_LOG_CONSOLE_ASYNC_OVERFLOW = "quarkus.log.console.async.overflow";
+
+    /*
+     * A batch stays well below the 1 MB PutLogEvents limit and the queue is bounded
+     * to a few batches, so a log burst costs at most a known amount of memory.
+     */
+    private static final Map<String, String> CLOUDWATCH_BATCHING_VALUES = Map.of(
+            "batch-size", "1000",
+            "batch-period", "PT5S",
+            "max-queue-size", "10000");
+    private static final String CONSOLE_ASYNC_QUEUE_LENGTH_VALUE = "4096";
+    private static final String DEFAULT_OVERFLOW = "discard";
+    public static final List<String> PREFIXES = List.of(QUARKUS_LOG_CLOUDWATCH, QUARKUS_LOG_CONSOLE_ASYNC);
+    public static final List<String> SECTIONS = List.of("logging");
+
+    private final boolean batching;
+    private final String overflow;
 
     public QuarkusLogCloudWatchClowderPropertyHandler(ClowderConfig clowderConfig) {
+        this(clowderConfig, new ClowderConfigSourceOptions(Map.of()));
+    }
+
+    public QuarkusLogCloudWatchClowderPropertyHandler(ClowderConfig clowderConfig, ClowderConfigSourceOptions options) {
         super(clowderConfig);
+        this.batching = options.isEnabled(CLOUDWATCH_BATCHING);
+        this.overflow = options.get(LOGGING_OVERFLOW, DEFAULT_OVERFLOW);
+    }
+
+    @Override
+    public List<String> provides() {
+        if (batching) {
+            return List.of(
+                    QUARKUS_LOG_CLOUDWATCH + ".batch-size",
+                    QUARKUS_LOG_CLOUDWATCH + ".batch-period",
+                    QUARKUS_LOG_CLOUDWATCH + ".max-queue-size",
+                    QUARKUS_LOG_CONSOLE_ASYNC,
+                    QUARKUS_LOG_CONSOLE_ASYNC_QUEUE_LENGTH,
+                    QUARKUS_LOG_CONSOLE_ASYNC_OVERFLOW);
+        }
+
+        return List.of();
+    }
+
+    @Override
+    public PropertyAvailability availability(String property) {
+        return PropertyAvailability.availableIf(isCloudWatchEnabled());
     }
 
     @Override
     public boolean handles(String property) {
-        return property.startsWith(QUARKUS_LOG_CLOUDWATCH);
+        return property.startsWith(QUARKUS_LOG_CLOUDWATCH)
+                || (batching && property.startsWith(QUARKUS_LOG_CONSOLE_ASYNC));
     }
 
     @Override
     public String handle(String property, ClowderConfigSource configSource) {
+        if (property.startsWith(QUARKUS_LOG_CONSOLE_ASYNC)) {
+            // Only switch the console to async logging when the logs are also shipped to CloudWatch
+            String existing = configSource.getExistingValue(property);
+            if (existing != null || !isCloudWatchEnabled()) {
+                return existing;
+            }
+            return switch (property) {
+                case QUARKUS_LOG_CONSOLE_ASYNC -> "true";
+                case QUARKUS_LOG_CONSOLE_ASYNC_QUEUE_LENGTH -> CONSOLE_ASYNC_QUEUE_LENGTH_VALUE;
+                case QUARKUS_LOG_CONSOLE_ASYNC_OVERFLOW -> overflow;
+                default -> null;
+            };
+        }
+
         if (clowderConfig.logging == null) {
             throw new IllegalStateException("No logging section found");
         }
@@ -25,6 +92,11 @@ public class QuarkusLogCloudWatchClowderPropertyHandler extends ClowderPropertyH
             throw new IllegalStateException("No cloudwatch section found in logging object");
         }
 
+        if (property.length() <= QUARKUS_LOG_CLOUDWATCH.length() + 1) {
+            // quarkus.log.cloudwatch itself, not one of its items
+            return configSource.getExistingValue(property);
+        }
+
         // Check for not null type and not "null" provider to enable and read
         // cloudwatch properties from Clowder config.
         // Note that the "null" type is a Clowder logging provider that disables
@@ -43,6 +115,14 @@ public class QuarkusLogCloudWatchClowderPropertyHandler extends ClowderPropertyH
                     return clowderConfig.logging.cloudwatch.region;
                 case "log-group":
                     return clowderConfig.logging.cloudwatch.logGroup;
+                case "batch-size":
+                case "batch-period":
+                case "max-queue-size":
+                    if (batching) {
+                        String existing = configSource.getExistingValue(property);
+                        return existing != null ? existing : CLOUDWATCH_BATCHING_VALUES.get(sub);
+                    }
+                    break;
                 default:
                     // fall through to fetching the value from application.properties
             }
@@ -55,4 +135,11 @@ public class QuarkusLogCloudWatchClowderPropertyHandler extends ClowderPropertyH
 
         return configSource.getExistingValue(property);
     }
+
+    private boolean isCloudWatchEnabled() {
+        return clowderConfig.logging != null
+                && clowderConfig.logging.cloudwatch != null
+                && clowderConfig.logging.type != null
+                && !clowderConfig.logging.type.equals("null");
+    }
 }
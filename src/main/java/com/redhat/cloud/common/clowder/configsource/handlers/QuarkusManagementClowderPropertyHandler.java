@@ -0,0 +1,38 @@
+package com.redhat.cloud.common.clowder.configsource.handlers;
+
+import com.redhat.cloud.common.clowder.configsource.ClowderConfig;
+import com.redhat.cloud.common.clowder.configsource.ClowderConfigSource;
+
+import java.util.List;
+
+/**
+ * Maps {@code quarkus.management.port} to the port Clowder scrapes, so that Prometheus and the
+ * probes don't share the event loops of the public port with the user traffic.
+ * <p>
+ * {@code quarkus.management.enabled} and the Prometheus path are fixed at build time and can't be
+ * provided by a config source: the application sets them in its application.properties. Without
+ * the management interface, Quarkus ignores the port.
+ */
+public class QuarkusManagementClowderPropertyHandler extends ClowderPropertyHandler {
+
+    private static final String QUARKUS_MANAGEMENT_PORT = "quarkus.management.port";
+    public static final List<String> PREFIXES = List.of(QUARKUS_MANAGEMENT_PORT);
+    public static final List<String> SECTIONS = List.of("metricsPort");
+
+    public QuarkusManagementClowderPropertyHandler(ClowderConfig clowderConfig) {
+        super(clowderConfig);
+    }
+
+    @Override
+    public boolean handles(String property) {
+        return property.equals(QUARKUS_MANAGEMENT_PORT);
+    }
+
+    @Override
+    public String handle(String property, ClowderConfigSource configSource) {
+        if (clowderConfig.metricsPort != null) {
+            return String.valueOf(clowderConfig.metricsPort);
+        }
+        return configSource.getExistingValue(property);
+    }
+}
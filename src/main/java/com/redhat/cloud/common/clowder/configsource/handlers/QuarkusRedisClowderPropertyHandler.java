@@ -2,9 +2,14 @@ package com.redhat.cloud.common.clowder.configsource.handlers;
 
 import com.redhat.cloud.common.clowder.configsource.ClowderConfig;
 import com.redhat.cloud.common.clowder.configsource.ClowderConfigSource;
+import org.jboss.logging.Logger;
+
+import java.util.List;
 
 public class QuarkusRedisClowderPropertyHandler extends ClowderPropertyHandler {
     private static final String QUARKUS_REDIS = "quarkus.redis.";
+    public static final List<String> PREFIXES = List.of(QUARKUS_REDIS);
+    public static final List<String> SECTIONS = List.of("inMemoryDb");
 
     public QuarkusRedisClowderPropertyHandler(ClowderConfig clowderConfig) {
         super(clowderConfig);
@@ -18,7 +23,7 @@ public class QuarkusRedisClowderPropertyHandler extends ClowderPropertyHandler {
     @Override
     public String handle(String property, ClowderConfigSource configSource) {
         if (clowderConfig.inMemoryDb == null) {
-            configSource.getLogger().warnf("No inMemoryDb section found in Clowder configuration, fallback to existing value for \"%s\" configuration key.", property);
+            configSource.getDiagnostics().logf(Logger.Level.WARN, property, "No inMemoryDb section found in Clowder configuration, fallback to existing value for \"%s\" configuration key.", property);
             return configSource.getExistingValue(property);
         }
 
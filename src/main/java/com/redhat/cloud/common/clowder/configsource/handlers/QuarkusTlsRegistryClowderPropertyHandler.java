@@ -0,0 +1,61 @@
+package com.redhat.cloud.common.clowder.configsource.handlers;
+
+import com.redhat.cloud.common.clowder.configsource.ClowderConfig;
+import com.redhat.cloud.common.clowder.configsource.ClowderConfigSource;
+import com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions;
+
+import java.util.List;
+
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.TLS_CONFIGURATION_NAME;
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.TLS_REGISTRY;
+
+/**
+ * Declares a TLS configuration in the Quarkus TLS registry trusting the Clowder CA. The registry
+ * reads the PEM file as is, unlike the endpoints trust store which is converted to a PKCS12 file.
+ */
+public class QuarkusTlsRegistryClowderPropertyHandler extends ClowderPropertyHandler {
+
+    private static final String QUARKUS_TLS = "quarkus.tls.";
+    private static final String TRUST_STORE_PEM_CERTS = ".trust-store.pem.certs";
+    private static final String DEFAULT_CONFIGURATION_NAME = "clowder";
+    public static final List<String> PREFIXES = List.of(QUARKUS_TLS);
+    public static final List<String> SECTIONS = List.of("tlsCAPath");
+
+    private final String certsKey;
+
+    public QuarkusTlsRegistryClowderPropertyHandler(ClowderConfig clowderConfig, ClowderConfigSourceOptions options) {
+        super(clowderConfig);
+        String configurationName = configurationName(options);
+        this.certsKey = configurationName == null ? null : QUARKUS_TLS + '"' + configurationName + '"' + TRUST_STORE_PEM_CERTS;
+    }
+
+    /**
+     * The name of the TLS configuration trusting the Clowder CA, or {@code null} when it is not declared.
+     */
+    public static String configurationName(ClowderConfigSourceOptions options) {
+        return options.isEnabled(TLS_REGISTRY) ? options.get(TLS_CONFIGURATION_NAME, DEFAULT_CONFIGURATION_NAME) : null;
+    }
+
+    @Override
+    public List<String> provides() {
+        return certsKey == null ? List.of() : List.of(certsKey);
+    }
+
+    @Override
+    public PropertyAvailability availability(String property) {
+        return PropertyAvailability.availableIf(clowderConfig.tlsCAPath != null && !clowderConfig.tlsCAPath.isBlank());
+    }
+
+    @Override
+    public boolean handles(String property) {
+        return property.equals(certsKey);
+    }
+
+    @Override
+    public String handle(String property, ClowderConfigSource configSource) {
+        if (clowderConfig.tlsCAPath == null || clowderConfig.tlsCAPath.isBlank()) {
+            return configSource.getExistingValue(property);
+        }
+        return clowderConfig.tlsCAPath;
+    }
+}
@@ -2,12 +2,63 @@ package com.redhat.cloud.common.clowder.configsource.handlers;
 
 import com.redhat.cloud.common.clowder.configsource.ClowderConfig;
 import com.redhat.cloud.common.clowder.configsource.ClowderConfigSource;
+import com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions;
+import org.jboss.logging.Logger;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.UNLEASH_BACKUP_FILE;
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.UNLEASH_FAST_STARTUP;
 
 public class QuarkusUnleashClowderPropertyHandler extends ClowderPropertyHandler {
     private static final String QUARKUS_UNLEASH = "quarkus.unleash.";
+    private static final String BACKUP_FILE = "backup-file";
+    private static final String SYNCHRONOUS_FETCH = "synchronous-fetch-on-initialisation";
+    private static final String FETCH_TOGGLES_INTERVAL = "fetch-toggles-interval";
+    private static final String SEND_METRICS_INTERVAL = "send-metrics-interval";
+    private static final List<String> FAST_STARTUP_ITEMS = List.of(
+            BACKUP_FILE,
+            SYNCHRONOUS_FETCH,
+            FETCH_TOGGLES_INTERVAL,
+            SEND_METRICS_INTERVAL);
+    // A local Unleash (ephemeral environments) is cheap to poll, a shared remote one isn't.
+    private static final String LOCAL_FETCH_TOGGLES_INTERVAL = "5";
+    private static final String REMOTE_FETCH_TOGGLES_INTERVAL = "15";
+    private static final String SEND_METRICS_INTERVAL_VALUE = "60";
+    public static final List<String> PREFIXES = List.of(QUARKUS_UNLEASH);
+    public static final List<String> SECTIONS = List.of("featureFlags");
+
+    private final boolean fastStartup;
+    private final String backupFile;
 
     public QuarkusUnleashClowderPropertyHandler(ClowderConfig clowderConfig) {
+        this(clowderConfig, new ClowderConfigSourceOptions(Map.of()));
+    }
+
+    public QuarkusUnleashClowderPropertyHandler(ClowderConfig clowderConfig, ClowderConfigSourceOptions options) {
         super(clowderConfig);
+        this.fastStartup = options.isEnabled(UNLEASH_FAST_STARTUP);
+        // The backup file must outlive the pod to help, so there's no default in the ephemeral java.io.tmpdir
+        String file = options.get(UNLEASH_BACKUP_FILE, null);
+        this.backupFile = file == null || file.isBlank() ? null : file.trim();
+    }
+
+    @Override
+    public List<String> provides() {
+        if (fastStartup && clowderConfig.featureFlags != null) {
+            return FAST_STARTUP_ITEMS.stream()
+                    .filter(item -> backupFile != null || !item.equals(BACKUP_FILE))
+                    .map(item -> QUARKUS_UNLEASH + item)
+                    .toList();
+        }
+
+        return List.of();
+    }
+
+    @Override
+    public PropertyAvailability availability(String property) {
+        return PropertyAvailability.availableIf(clowderConfig.featureFlags != null);
     }
 
     public boolean handles(String property) {
@@ -16,7 +67,7 @@ public class QuarkusUnleashClowderPropertyHandler extends ClowderPropertyHandler
 
     public String handle(String property, ClowderConfigSource configSource) {
         if (clowderConfig.featureFlags == null) {
-            configSource.getLogger().warn("Unleash configuration requested by Quarkus but not found the Clowder configuration");
+            configSource.getDiagnostics().log(Logger.Level.WARN, "featureFlags", "Unleash configuration requested by Quarkus but not found the Clowder configuration");
         } else {
             String item = property.substring(QUARKUS_UNLEASH.length());
             if (item.equals("token")) {
@@ -30,8 +81,28 @@ public class QuarkusUnleashClowderPropertyHandler extends ClowderPropertyHandler
                 url += "/api";
                 return url;
             }
+            if (fastStartup && FAST_STARTUP_ITEMS.contains(item)) {
+                String existing = configSource.getExistingValue(property);
+                return existing != null ? existing : getFastStartupValue(item);
+            }
         }
 
         return configSource.getExistingValue(property);
     }
+
+    /**
+     * The client starts from the toggles cached in the backup file and fetches the
+     * fresh ones in the background, so the pod doesn't wait on the Unleash API.
+     */
+    private String getFastStartupValue(String item) {
+        return switch (item) {
+            case BACKUP_FILE -> backupFile;
+            case SYNCHRONOUS_FETCH -> "false";
+            case FETCH_TOGGLES_INTERVAL -> "https".equals(clowderConfig.featureFlags.scheme)
+                    ? REMOTE_FETCH_TOGGLES_INTERVAL
+                    : LOCAL_FETCH_TOGGLES_INTERVAL;
+            case SEND_METRICS_INTERVAL -> SEND_METRICS_INTERVAL_VALUE;
+            default -> null;
+        };
+    }
 }
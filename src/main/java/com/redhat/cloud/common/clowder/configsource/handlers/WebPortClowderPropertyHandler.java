@@ -2,19 +2,86 @@ package com.redhat.cloud.common.clowder.configsource.handlers;
 
 import com.redhat.cloud.common.clowder.configsource.ClowderConfig;
 import com.redhat.cloud.common.clowder.configsource.ClowderConfigSource;
+import com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions.CONTAINER_THREAD_SIZING;
+import static com.redhat.cloud.common.clowder.configsource.utils.ContainerUtils.availableProcessors;
+import static com.redhat.cloud.common.clowder.configsource.utils.ContainerUtils.defaultEventLoops;
 
 public class WebPortClowderPropertyHandler extends ClowderPropertyHandler {
     private static final String QUARKUS_HTTP_PORT = "quarkus.http.port";
+    private static final String QUARKUS_HTTP_IO_THREADS = "quarkus.http.io-threads";
+    private static final String QUARKUS_HTTP_ACCEPT_BACKLOG = "quarkus.http.accept-backlog";
+    private static final String QUARKUS_VERTX_EVENT_LOOPS = "quarkus.vertx.event-loops-pool-size";
+    private static final String QUARKUS_THREAD_POOL_MAX_THREADS = "quarkus.thread-pool.max-threads";
+    private static final List<String> THREAD_SIZING_ITEMS = List.of(
+            QUARKUS_HTTP_IO_THREADS,
+            QUARKUS_HTTP_ACCEPT_BACKLOG,
+            QUARKUS_VERTX_EVENT_LOOPS,
+            QUARKUS_THREAD_POOL_MAX_THREADS);
+    // Quarkus sizes the worker pool to max(8 * CPUs, 200)
+    private static final int WORKER_THREADS_PER_CPU = 8;
+    private static final int MIN_WORKER_THREADS = 200;
+    // Bounded so that a saturated pod refuses the connections instead of queueing them for the OS default
+    private static final int ACCEPT_BACKLOG_VALUE = 1024;
+    public static final List<String> PREFIXES = List.of(QUARKUS_HTTP_PORT, QUARKUS_HTTP_IO_THREADS, QUARKUS_HTTP_ACCEPT_BACKLOG,
+            QUARKUS_VERTX_EVENT_LOOPS, QUARKUS_THREAD_POOL_MAX_THREADS);
+    public static final List<String> SECTIONS = List.of("webPort", "publicPort");
+
+    private final boolean threadSizing;
 
     public WebPortClowderPropertyHandler(ClowderConfig clowderConfig) {
+        this(clowderConfig, new ClowderConfigSourceOptions(Map.of()));
+    }
+
+    public WebPortClowderPropertyHandler(ClowderConfig clowderConfig, ClowderConfigSourceOptions options) {
         super(clowderConfig);
+        this.threadSizing = options.isEnabled(CONTAINER_THREAD_SIZING);
+    }
+
+    @Override
+    public List<String> provides() {
+        return threadSizing ? THREAD_SIZING_ITEMS : List.of();
+    }
+
+    @Override
+    public PropertyAvailability availability(String property) {
+        return PropertyAvailability.AVAILABLE;
     }
 
     public boolean handles(String property) {
-        return property.equals(QUARKUS_HTTP_PORT);
+        return property.equals(QUARKUS_HTTP_PORT) || (threadSizing && THREAD_SIZING_ITEMS.contains(property));
     }
 
     public String handle(String property, ClowderConfigSource configSource) {
-        return String.valueOf(clowderConfig.webPort);
+        if (!property.equals(QUARKUS_HTTP_PORT)) {
+            String existing = configSource.getExistingValue(property);
+            return existing != null ? existing : getThreadSizingValue(property);
+        }
+
+        // webPort is deprecated in favor of publicPort, newer Clowder versions may only set the latter
+        if (clowderConfig.webPort != null) {
+            return String.valueOf(clowderConfig.webPort);
+        }
+        if (clowderConfig.publicPort != null) {
+            return String.valueOf(clowderConfig.publicPort);
+        }
+        return configSource.getExistingValue(property);
+    }
+
+    /**
+     * Sizes the threads from the CPU quota of the container rather than the CPUs of the node, with the
+     * same ratios as the Quarkus defaults.
+     */
+    private String getThreadSizingValue(String property) {
+        return switch (property) {
+            case QUARKUS_HTTP_IO_THREADS, QUARKUS_VERTX_EVENT_LOOPS -> String.valueOf(defaultEventLoops());
+            case QUARKUS_THREAD_POOL_MAX_THREADS -> String.valueOf(Math.max(WORKER_THREADS_PER_CPU * availableProcessors(), MIN_WORKER_THREADS));
+            case QUARKUS_HTTP_ACCEPT_BACKLOG -> String.valueOf(ACCEPT_BACKLOG_VALUE);
+            default -> null;
+        };
     }
 }
@@ -0,0 +1,80 @@
+package com.redhat.cloud.common.clowder.configsource.utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.OptionalInt;
+
+/**
+ * Utilities to size pools and threads from the resources the container actually gets.
+ */
+public final class ContainerUtils {
+
+    private static final Path CGROUP_ROOT = Path.of("/sys/fs/cgroup");
+
+    private ContainerUtils() {
+
+    }
+
+    /**
+     * The number of CPUs available to the container. The JVM usually caps it to the cgroup CPU
+     * quota already, but not when the processor count is forced or the container support is
+     * disabled, so the quota is also applied here.
+     */
+    public static int availableProcessors() {
+        int processors = Math.max(1, Runtime.getRuntime().availableProcessors());
+        OptionalInt quota = CpuQuota.CPUS;
+        return quota.isPresent() ? Math.min(processors, quota.getAsInt()) : processors;
+    }
+
+    /**
+     * The number of Vert.x event loops Quarkus creates by default (2 * CPUs).
+     */
+    public static int defaultEventLoops() {
+        return 2 * availableProcessors();
+    }
+
+    /**
+     * The CPU quota of the cgroup, rounded up to whole CPUs, from the cgroup v2 {@code cpu.max} file
+     * or the cgroup v1 {@code cpu.cfs_quota_us} and {@code cpu.cfs_period_us} files. Empty when there
+     * is no quota or no cgroup file.
+     */
+    public static OptionalInt cpuQuota(Path cgroupRoot) {
+        try {
+            Path cpuMax = cgroupRoot.resolve("cpu.max");
+            if (Files.isReadable(cpuMax)) {
+                // "<quota> <period>", or "max <period>" without quota
+                String[] values = Files.readString(cpuMax).trim().split("\\s+");
+                if (values.length == 2 && !values[0].equals("max")) {
+                    return cpus(Long.parseLong(values[0]), Long.parseLong(values[1]));
+                }
+                return OptionalInt.empty();
+            }
+
+            for (String controller : new String[] {"cpu", "cpu,cpuacct"}) {
+                Path quota = cgroupRoot.resolve(controller).resolve("cpu.cfs_quota_us");
+                Path period = cgroupRoot.resolve(controller).resolve("cpu.cfs_period_us");
+                if (Files.isReadable(quota) && Files.isReadable(period)) {
+                    // -1 without quota
+                    return cpus(Long.parseLong(Files.readString(quota).trim()), Long.parseLong(Files.readString(period).trim()));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Unknown format, the JVM count is used
+        }
+
+        return OptionalInt.empty();
+    }
+
+    private static OptionalInt cpus(long quota, long period) {
+        if (quota <= 0 || period <= 0) {
+            return OptionalInt.empty();
+        }
+        return OptionalInt.of((int) Math.max(1, (quota + period - 1) / period));
+    }
+
+    // The quota is read once, on first use
+    private static final class CpuQuota {
+        static final OptionalInt CPUS = cpuQuota(CGROUP_ROOT);
+    }
+}
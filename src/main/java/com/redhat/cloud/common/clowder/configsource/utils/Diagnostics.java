@@ -0,0 +1,120 @@
+package com.redhat.cloud.common.clowder.configsource.utils;
+
+import org.jboss.logging.Logger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logs the messages of the property lookups once per config key.
+ * <p>
+ * The same key is usually looked up many times, and a misconfigured key would otherwise log the
+ * same message on every lookup. The repetitions are counted and only logged at DEBUG level, which
+ * is neither formatted nor allocated when disabled. A summary of the repetitions is logged at most
+ * once per interval, when a repetition happens.
+ */
+public final class Diagnostics {
+
+    public static final long DEFAULT_SUMMARY_INTERVAL_NANOS = 5 * 60 * 1_000_000_000L;
+
+    private final Logger logger;
+    private final long summaryIntervalNanos;
+    // Message format -> config key -> number of times the message was reported
+    private final Map<String, Map<String, LongAdder>> counts = new ConcurrentHashMap<>();
+    private final LongAdder suppressed = new LongAdder();
+    private final AtomicLong lastSummary = new AtomicLong(System.nanoTime());
+
+    public Diagnostics(Logger logger) {
+        this(logger, DEFAULT_SUMMARY_INTERVAL_NANOS);
+    }
+
+    public Diagnostics(Logger logger, long summaryIntervalNanos) {
+        this.logger = logger;
+        this.summaryIntervalNanos = summaryIntervalNanos;
+    }
+
+    public void log(Logger.Level level, String key, String message) {
+        if (report(message, key)) {
+            logger.log(level, message);
+        } else {
+            logger.log(Logger.Level.DEBUG, message);
+        }
+    }
+
+    public void logf(Logger.Level level, String key, String format, Object param1) {
+        if (report(format, key)) {
+            logger.logf(level, format, param1);
+        } else {
+            logger.logf(Logger.Level.DEBUG, format, param1);
+        }
+    }
+
+    public void logf(Logger.Level level, String key, String format, Object param1, Object param2) {
+        if (report(format, key)) {
+            logger.logf(level, format, param1, param2);
+        } else {
+            logger.logf(Logger.Level.DEBUG, format, param1, param2);
+        }
+    }
+
+    public void logf(Logger.Level level, String key, String format, Object param1, Object param2, Object param3) {
+        if (report(format, key)) {
+            logger.logf(level, format, param1, param2, param3);
+        } else {
+            logger.logf(Logger.Level.DEBUG, format, param1, param2, param3);
+        }
+    }
+
+    /**
+     * The number of times a message was reported for a config key, logged or not.
+     */
+    public long count(String format, String key) {
+        Map<String, LongAdder> byKey = counts.get(format);
+        LongAdder count = byKey == null ? null : byKey.get(key);
+        return count == null ? 0 : count.sum();
+    }
+
+    /**
+     * The number of repeated messages that were not logged at their own level.
+     */
+    public long suppressed() {
+        return suppressed.sum();
+    }
+
+    /**
+     * Counts the message and tells whether it is reported for the first time for the key.
+     */
+    private boolean report(String format, String key) {
+        Map<String, LongAdder> byKey = counts.get(format);
+        if (byKey == null) {
+            byKey = counts.computeIfAbsent(format, f -> new ConcurrentHashMap<>());
+        }
+        LongAdder count = byKey.get(key);
+        if (count == null) {
+            LongAdder created = new LongAdder();
+            count = byKey.putIfAbsent(key, created);
+            if (count == null) {
+                created.increment();
+                return true;
+            }
+        }
+        count.increment();
+        suppressed.increment();
+        summarizeIfDue();
+        return false;
+    }
+
+    private void summarizeIfDue() {
+        long last = lastSummary.get();
+        long now = System.nanoTime();
+        if (now - last >= summaryIntervalNanos && lastSummary.compareAndSet(last, now)) {
+            int keys = 0;
+            for (Map<String, LongAdder> byKey : counts.values()) {
+                keys += byKey.size();
+            }
+            logger.infof("%d repeated Clowder config messages were logged at DEBUG level instead, for %d config keys", suppressed.sum(), keys);
+        }
+    }
+}
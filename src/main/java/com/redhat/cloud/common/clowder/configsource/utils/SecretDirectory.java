@@ -0,0 +1,261 @@
+package com.redhat.cloud.common.clowder.configsource.utils;
+
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * The directory where the certificates and trust stores derived from the Clowder config are written.
+ * <p>
+ * It defaults to {@code /dev/shm} when present, so that the secrets stay in memory and don't use
+ * the ephemeral storage of the pod, and can be changed with {@code acg.secrets.directory}. The files
+ * are written in a {@code clowder-config-source-<random>} subdirectory only readable by the owner,
+ * deleted by a single shutdown hook. The containers of a pod share {@code /dev/shm} and usually all
+ * run as PID 1, so the name doesn't use the PID. Each process instead holds a lock on a file of its
+ * subdirectory while it runs, and the subdirectories left by killed processes are only deleted when
+ * their lock can be taken, the next time the directory is used.
+ * <p>
+ * Files are deduplicated by content, so reading the same key again doesn't write a new file, and
+ * their number is bounded.
+ */
+public final class SecretDirectory {
+
+    public static final int MAX_FILES = 256;
+
+    private static final Logger LOG = Logger.getLogger(SecretDirectory.class.getName());
+    private static final Path DEV_SHM = Path.of("/dev/shm");
+    private static final String DIRECTORY_PREFIX = "clowder-config-source-";
+    private static final String LOCK_FILE = ".lock";
+    private static final Set<PosixFilePermission> OWNER_ONLY_DIRECTORY = PosixFilePermissions.fromString("rwx------");
+    private static final Set<PosixFilePermission> OWNER_ONLY_FILE = PosixFilePermissions.fromString("rw-------");
+
+    private static Path baseDirectory;
+    private static Path directory;
+    // Held until the JVM exits, it tells the other processes that the directory is in use
+    private static FileChannel lockChannel;
+    // Content hash -> file, in creation order
+    private static final Map<String, Path> FILES = new LinkedHashMap<>();
+
+    private SecretDirectory() {
+
+    }
+
+    /**
+     * Sets the base directory, {@code null} restores the default. Only effective before the first file is written.
+     */
+    public static synchronized void configure(String base) {
+        Path requested = base == null || base.isBlank() ? null : Path.of(base);
+        if (directory != null && !directory.getParent().equals(requested == null ? defaultBaseDirectory() : requested)) {
+            LOG.warnf("Secret files are already written to %s, ignoring the %s directory", directory, base);
+            return;
+        }
+        baseDirectory = requested;
+    }
+
+    /**
+     * Writes the content to a file only readable by the owner, or returns the file previously written with the same content.
+     */
+    public static synchronized Path write(String prefix, String suffix, byte[] content) {
+        return write(prefix, suffix, content, content);
+    }
+
+    /**
+     * Writes the content to a file only readable by the owner, or returns the file previously written for the same
+     * identity. For contents that differ each time they are built from the same input, e.g. key stores with a random salt.
+     */
+    public static synchronized Path write(String prefix, String suffix, byte[] identity, byte[] content) {
+        String key = prefix + suffix + ':' + sha256(identity);
+        Path existing = FILES.get(key);
+        if (existing != null && Files.exists(existing)) {
+            return existing;
+        }
+        if (FILES.size() >= MAX_FILES) {
+            throw new IllegalStateException("Too many secret files written to " + directory + ", the limit is " + MAX_FILES);
+        }
+
+        try {
+            Path file = Files.createTempFile(getDirectory(), prefix, suffix, fileAttributes(OWNER_ONLY_FILE));
+            Files.write(file, content);
+            FILES.put(key, file);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Secret file creation failed", e);
+        }
+    }
+
+    /**
+     * Creates an empty file only readable by the owner. It is tracked but, unlike {@link #write}, not deduplicated.
+     */
+    public static synchronized Path createFile(String prefix, String suffix) {
+        if (FILES.size() >= MAX_FILES) {
+            throw new IllegalStateException("Too many secret files written to " + directory + ", the limit is " + MAX_FILES);
+        }
+
+        try {
+            Path file = Files.createTempFile(getDirectory(), prefix, suffix, fileAttributes(OWNER_ONLY_FILE));
+            FILES.put(file.toString(), file);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Secret file creation failed", e);
+        }
+    }
+
+    /**
+     * The files written by this process, in creation order.
+     */
+    public static synchronized List<Path> getFiles() {
+        return List.copyOf(FILES.values());
+    }
+
+    /**
+     * Whether the value references a file written by this process, as the whole value or embedded in it, e.g. the
+     * sslrootcert parameter of a JDBC URL. Doesn't create the directory.
+     */
+    public static synchronized boolean isReferencedBy(String value) {
+        return directory != null && value != null && value.contains(directory.toString());
+    }
+
+    /**
+     * The directory of this process, created on first use.
+     */
+    public static synchronized Path getDirectory() {
+        if (directory == null) {
+            Path base = baseDirectory != null ? baseDirectory : defaultBaseDirectory();
+            Path candidate;
+            try {
+                Files.createDirectories(base);
+                deleteStaleDirectories(base);
+                candidate = Files.createTempDirectory(base, DIRECTORY_PREFIX, fileAttributes(OWNER_ONLY_DIRECTORY));
+                lockChannel = lock(candidate);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Secret directory creation failed in " + base, e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> delete(candidate), "clowder-secret-directory-cleanup"));
+            directory = candidate;
+        }
+
+        return directory;
+    }
+
+    private static Path defaultBaseDirectory() {
+        if (Files.isDirectory(DEV_SHM) && Files.isWritable(DEV_SHM)) {
+            return DEV_SHM;
+        }
+        return Path.of(System.getProperty("java.io.tmpdir"));
+    }
+
+    /**
+     * Locks the lock file of the directory, then writes to it: a lock file with content whose lock
+     * can be taken belongs to a process that is gone. An empty one may belong to a process still
+     * creating its directory.
+     */
+    private static FileChannel lock(Path dir) throws IOException {
+        Path lockFile = dir.resolve(LOCK_FILE);
+        FileChannel channel = FileChannel.open(lockFile, Set.of(StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), fileAttributes(OWNER_ONLY_FILE));
+        try {
+            channel.lock();
+            channel.write(ByteBuffer.wrap(String.valueOf(ProcessHandle.current().pid()).getBytes(StandardCharsets.UTF_8)));
+            channel.force(false);
+            return channel;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Deletes the directories whose owner is gone, i.e. whose lock file is unlocked. The directories
+     * without a lock file, with a lock held by a live process (in this container or another one) or
+     * that can't be read are kept.
+     */
+    public static void deleteStaleDirectories(Path base) throws IOException {
+        try (Stream<Path> children = Files.list(base)) {
+            children.filter(child -> child.getFileName().toString().startsWith(DIRECTORY_PREFIX))
+                    .filter(Files::isDirectory)
+                    .forEach(child -> {
+                        if (isStale(child)) {
+                            LOG.debugf("Deleting stale secret directory %s", child);
+                            delete(child);
+                        }
+                    });
+        }
+    }
+
+    private static boolean isStale(Path dir) {
+        Path lockFile = dir.resolve(LOCK_FILE);
+        if (!Files.isRegularFile(lockFile)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.WRITE)) {
+            FileLock lock = channel.tryLock();
+            if (lock == null) {
+                return false;
+            }
+            try {
+                return channel.size() > 0;
+            } finally {
+                lock.release();
+            }
+        } catch (OverlappingFileLockException e) {
+            // Locked by this JVM
+            return false;
+        } catch (IOException e) {
+            LOG.debugf(e, "Could not check whether %s is stale", dir);
+            return false;
+        }
+    }
+
+    private static void delete(Path path) {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(path)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try {
+                    Files.deleteIfExists(p);
+                } catch (IOException e) {
+                    LOG.debugf(e, "Could not delete %s", p);
+                }
+            });
+        } catch (IOException e) {
+            LOG.debugf(e, "Could not delete %s", path);
+        }
+    }
+
+    private static FileAttribute<?>[] fileAttributes(Set<PosixFilePermission> permissions) {
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            return new FileAttribute<?>[] {PosixFilePermissions.asFileAttribute(permissions)};
+        }
+        return new FileAttribute<?>[0];
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
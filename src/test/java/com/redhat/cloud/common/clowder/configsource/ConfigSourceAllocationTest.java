@@ -0,0 +1,295 @@
+package com.redhat.cloud.common.clowder.configsource;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.management.ThreadMXBean;
+import io.smallrye.config.ConfigValue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceFactory.loadPropertyHandlers;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Allocation and retained heap budgets for the config source. The config source is queried
+ * for every config key at startup and by some extensions at runtime, so an allocation
+ * regression on {@link ClowderConfigSource#getValue(String)} must fail the build.
+ * <p>
+ * The allocation budgets always run. They are about one and a half times the measured values and
+ * at least 256 bytes, to absorb JVM and JIT differences (e.g. an allocation that escape analysis
+ * doesn't remove) while still catching a handler that starts allocating per call (e.g. compiling a
+ * regex, copying a list or formatting a message).
+ * <p>
+ * The retained heap is measured from the used heap around {@link System#gc()}, which the JVM may
+ * ignore or only partially honor, so these tests only run with {@code -Dclowder.heap-tests=true}.
+ */
+public class ConfigSourceAllocationTest {
+
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int ITERATIONS = 10_000;
+    private static final int RETAINED_INSTANCES = 200;
+    private static final int RETAINED_HEAP_ROUNDS = 5;
+    private static final int COLLECTIONS = 3;
+    private static final int GC_ATTEMPTS = 10;
+    private static final String HEAP_TESTS = "clowder.heap-tests";
+
+    private static final Map<String, ConfigValue> APP_PROPS_MAP = new HashMap<>();
+    private static final ThreadMXBean THREAD_MX_BEAN = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // Keep the results alive, so that the JIT can't remove the calls
+    private static String sink;
+    // The instances measured by the retained heap tests, static so that they are reachable until released
+    private static Object[] retained;
+
+    @BeforeAll
+    static void setup() throws Exception {
+        assumeTrue(THREAD_MX_BEAN.isThreadAllocatedMemorySupported(), "Thread allocated memory is not supported by this JVM");
+        THREAD_MX_BEAN.setThreadAllocatedMemoryEnabled(true);
+
+        Properties appProps = new Properties();
+        try (InputStream is = ConfigSourceAllocationTest.class.getResourceAsStream("/application.properties")) {
+            appProps.load(is);
+        }
+        appProps.forEach((k, v) -> APP_PROPS_MAP.put((String) k, new ConfigValue.ConfigValueBuilder()
+                .withName(String.valueOf(k))
+                .withValue(String.valueOf(v))
+                .withConfigSourceName("PropertiesConfigSource[source=application.properties]")
+                .withConfigSourceOrdinal(250)
+                .build()));
+    }
+
+    @Test
+    void testWebPortAllocation() {
+        assertAllocationBudget(configSourceWithFile("/cdappconfig.json"), "quarkus.http.port", 256);
+    }
+
+    @Test
+    void testKafkaBootstrapAllocation() {
+        assertAllocationBudget(configSourceWithFile("/cdappconfig2.json"), "kafka.bootstrap.servers", 512);
+    }
+
+    @Test
+    void testKafkaSecurityAllocation() {
+        ClowderConfigSource source = configSourceWithFile("/cdappconfig_kafka_sasl_plain_authtype.json");
+        assertAllocationBudget(source, "kafka.sasl.jaas.config", 256);
+        assertAllocationBudget(source, "kafka.sasl.mechanism", 256);
+    }
+
+    @Test
+    void testTopicAllocation() {
+        assertAllocationBudget(configSourceWithFile("/cdappconfig.json"), "mp.messaging.incoming.ingress.topic", 256);
+    }
+
+    @Test
+    void testDatasourceAllocation() {
+        ClowderConfigSource source = configSourceWithFile("/cdappconfig.json");
+        assertAllocationBudget(source, "quarkus.datasource.username", 256);
+        assertAllocationBudget(source, "quarkus.datasource.jdbc.url", 6144);
+        assertAllocationBudget(source, "quarkus.datasource.reactive.url", 1280);
+    }
+
+    @Test
+    void testRedisAllocation() {
+        assertAllocationBudget(configSourceWithFile("/cdappconfig.json"), "quarkus.redis.hosts", 256);
+    }
+
+    @Test
+    void testCloudWatchAllocation() {
+        assertAllocationBudget(configSourceWithFile("/cdappconfig.json"), "quarkus.log.cloudwatch.log-group", 256);
+    }
+
+    @Test
+    void testUnleashAllocation() {
+        assertAllocationBudget(configSourceWithFile("/cdappconfig.json"), "quarkus.unleash.url", 1024);
+    }
+
+    @Test
+    void testEndpointAllocation() {
+        ClowderConfigSource source = configSourceWithFile("/cdappconfig.json");
+        assertAllocationBudget(source, "clowder.endpoints.notifications-gw.url", 768);
+        assertAllocationBudget(source, "clowder.endpoints.notifications-gw.read-timeout", 768);
+    }
+
+    @Test
+    void testPrivateEndpointAllocation() {
+        assertAllocationBudget(configSourceWithFile("/cdappconfig_secured_private_endpoint.json"),
+                "clowder.private-endpoints.notifications-api.url", 768);
+    }
+
+    @Test
+    void testRepeatedWarningAllocation() {
+        // The old format warning and its example are only formatted the first time
+        assertAllocationBudget(configSourceWithFile("/cdappconfig.json"), "clowder.endpoints.notifications-gw", 384);
+    }
+
+    @Test
+    void testUnhandledKeyAllocation() {
+        assertAllocationBudget(configSourceWithFile("/cdappconfig.json"), "quarkus.http.access-log.pattern", 256);
+    }
+
+    @Test
+    void testSyntheticAllocation() {
+        SyntheticClowderConfig synthetic = SyntheticClowderConfig.generate(500, 500, 500, 12, 5_000);
+        ClowderConfigSource source = new ClowderConfigSource(synthetic.getClowderConfig(),
+                new HashMap<>(synthetic.getProperties()), loadPropertyHandlers(synthetic.getClowderConfig(), false));
+
+        // The last endpoint and topic are the worst case of the linear lookups
+        assertAllocationBudget(source, "clowder.endpoints.app-499-service.url", 640);
+        assertAllocationBudget(source, "clowder.private-endpoints.private-app-499-api.url", 640);
+        assertAllocationBudget(source, "mp.messaging.incoming.channel-499.topic", 256);
+        assertAllocationBudget(source, "app.setting-42", 256);
+        // One host:port per broker
+        assertAllocationBudget(source, "kafka.bootstrap.servers", 3072);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = HEAP_TESTS, matches = "true")
+    void testRetainedHeap() {
+        assertRetainedHeapBudget("/cdappconfig.json", 24 * 1024);
+        assertRetainedHeapBudget("/cdappconfig_secured_endpoint.json", 24 * 1024);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = HEAP_TESTS, matches = "true")
+    void testSyntheticRetainedHeap() {
+        SyntheticClowderConfig synthetic = SyntheticClowderConfig.generate(500, 500, 500, 12, 5_000);
+        ClowderConfig root = synthetic.getClowderConfig();
+
+        // The Clowder config and the properties are shared, this is what each config source adds
+        long retained = retainedBytesPerInstance(() -> new ClowderConfigSource(root,
+                new HashMap<>(synthetic.getProperties()), loadPropertyHandlers(root, false)));
+        assertBudget("retained heap of a synthetic ClowderConfigSource", retained, 768 * 1024);
+    }
+
+    private static void assertAllocationBudget(ClowderConfigSource source, String key, long budget) {
+        assertNotNull(source.getValue(key), key);
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink = source.getValue(key);
+        }
+        long start = THREAD_MX_BEAN.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink = source.getValue(key);
+        }
+        long allocated = (THREAD_MX_BEAN.getCurrentThreadAllocatedBytes() - start) / ITERATIONS;
+
+        assertBudget("bytes allocated by getValue(\"" + key + "\")", allocated, budget);
+    }
+
+    private static void assertRetainedHeapBudget(String filename, long budget) {
+        String configJson = readFile(filename);
+        long retained = retainedBytesPerInstance(() -> {
+            ClowderConfig root = readClowderConfig(configJson);
+            return new ClowderConfigSource(root, new HashMap<>(APP_PROPS_MAP), loadPropertyHandlers(root, false));
+        });
+        assertBudget("retained heap of a ClowderConfigSource built from " + filename, retained, budget);
+    }
+
+    /**
+     * Builds a batch of instances and measures how much less heap is used once they are released.
+     * Measuring the release rather than the build keeps the garbage left by the previous tests out of
+     * the difference. The readings are noisy, so the median of several rounds is returned, and a
+     * median that isn't positive fails the measurement instead of passing any budget.
+     */
+    private static long retainedBytesPerInstance(Supplier<Object> supplier) {
+        // Warm up the class loading and the static caches
+        sink = String.valueOf(supplier.get().hashCode());
+
+        MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+        long[] readings = new long[RETAINED_HEAP_ROUNDS];
+        for (int round = 0; round < RETAINED_HEAP_ROUNDS; round++) {
+            retained = new Object[RETAINED_INSTANCES];
+            for (int i = 0; i < RETAINED_INSTANCES; i++) {
+                retained[i] = supplier.get();
+            }
+            long reachable = usedHeapAfterGc(memoryMXBean);
+            assertNotNull(retained[RETAINED_INSTANCES - 1]);
+            retained = null;
+            long released = usedHeapAfterGc(memoryMXBean);
+            readings[round] = (reachable - released) / RETAINED_INSTANCES;
+        }
+
+        long[] sorted = readings.clone();
+        Arrays.sort(sorted);
+        long median = sorted[RETAINED_HEAP_ROUNDS / 2];
+        assertTrue(median > 0, "The retained heap measurement is not reliable, bytes per instance: " + Arrays.toString(readings));
+        return median;
+    }
+
+    /**
+     * The used heap after full collections. {@link System#gc()} is only a request, which the JVM
+     * skips e.g. while a thread is in a JNI critical region, so it is repeated until a collection ran.
+     * The objects only reachable from a reference or a finalizer are freed by the next collection,
+     * hence several of them.
+     */
+    private static long usedHeapAfterGc(MemoryMXBean memoryMXBean) {
+        for (int i = 0; i < COLLECTIONS; i++) {
+            collect();
+        }
+        return memoryMXBean.getHeapMemoryUsage().getUsed();
+    }
+
+    private static void collect() {
+        for (int attempt = 0; attempt < GC_ATTEMPTS; attempt++) {
+            long collections = collectionCount();
+            System.gc();
+            if (collectionCount() > collections) {
+                return;
+            }
+            LockSupport.parkNanos(10_000_000L);
+        }
+        fail("System.gc() didn't run a collection after " + GC_ATTEMPTS + " attempts");
+    }
+
+    private static long collectionCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static void assertBudget(String measurement, long value, long budget) {
+        assertTrue(value <= budget, String.format("%s: %d bytes, budget is %d bytes", measurement, value, budget));
+    }
+
+    private static ClowderConfigSource configSourceWithFile(String filename) {
+        ClowderConfig root = readClowderConfig(readFile(filename));
+        return new ClowderConfigSource(root, new HashMap<>(APP_PROPS_MAP), loadPropertyHandlers(root, false));
+    }
+
+    private static ClowderConfig readClowderConfig(String configJson) {
+        try {
+            ObjectMapper objectMapper = new ObjectMapper();
+            objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+            return objectMapper.readValue(configJson, ClowderConfig.class);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String readFile(String filename) {
+        try (InputStream is = ConfigSourceAllocationTest.class.getResourceAsStream(filename)) {
+            return new String(is.readAllBytes(), UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Error reading '" + filename + "'", e);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.redhat.cloud.common.clowder.configsource;
+
+import io.smallrye.config.ConfigValue;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceFactory.createConfigSource;
+import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceFactory.readClowderConfig;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that every generated key resolves like the {@link ReferenceClowderResolver}, and reports
+ * how the config source scales with the size of the Clowder config and of the application properties.
+ * <p>
+ * The sizes are {@code <endpoints>:<properties>} pairs, the number of private endpoints and topics
+ * follows the number of endpoints. The resolution is checked on small sizes in every build, the
+ * timings are only measured and logged when sizes are given, e.g.
+ * {@code -Dclowder.scaling.sizes=10:1000,100:10000,1000:50000}.
+ */
+public class ConfigSourceScalingTest {
+
+    private static final Logger LOG = Logger.getLogger(ConfigSourceScalingTest.class);
+    private static final String SIZES = "clowder.scaling.sizes";
+    private static final String CORRECTNESS_SIZES = "10:100,100:1000";
+    private static final int MAX_BROKERS = 24;
+    private static final int FACTORY_RUNS = 3;
+    private static final int LATENCY_PASSES = 5;
+
+    @Test
+    void testResolution() throws IOException {
+        for (String size : CORRECTNESS_SIZES.split(",")) {
+            String[] parts = size.split(":");
+            run(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), false);
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = SIZES, matches = ".*\\d.*")
+    void testScaling() throws IOException {
+        LOG.infof("%10s %11s %13s %10s %9s %9s %9s %9s",
+                "ENDPOINTS", "PROPERTIES", "FACTORY (ms)", "HEAP (KB)", "P50 (us)", "P90 (us)", "P99 (us)", "MAX (us)");
+        for (String size : System.getProperty(SIZES).split(",")) {
+            String[] parts = size.trim().split(":");
+            run(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), true);
+        }
+    }
+
+    private static void run(int endpoints, int totalProperties, boolean measure) throws IOException {
+        SyntheticClowderConfig synthetic = SyntheticClowderConfig.generate(endpoints, endpoints, endpoints,
+                Math.min(endpoints, MAX_BROKERS), totalProperties);
+        Path directory = Files.createTempDirectory("clowder-scaling");
+        try {
+            synthetic.writeTo(directory);
+            if (!measure) {
+                assertResolution(synthetic, directory, createConfigSourceFromFiles(directory));
+                return;
+            }
+
+            // Same work as the factory, from the files
+            long factoryNanos = Long.MAX_VALUE;
+            for (int i = 0; i < FACTORY_RUNS; i++) {
+                long start = System.nanoTime();
+                createConfigSourceFromFiles(directory);
+                factoryNanos = Math.min(factoryNanos, System.nanoTime() - start);
+            }
+
+            MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+            long heapBefore = usedHeapAfterGc(memoryMXBean);
+            ClowderConfigSource source = createConfigSourceFromFiles(directory);
+            long heap = usedHeapAfterGc(memoryMXBean) - heapBefore;
+
+            assertResolution(synthetic, directory, source);
+
+            List<String> keys = synthetic.getClowderKeys();
+            long[] latencies = new long[keys.size() * LATENCY_PASSES];
+            int sample = 0;
+            for (int pass = 0; pass < LATENCY_PASSES; pass++) {
+                for (String key : keys) {
+                    long start = System.nanoTime();
+                    source.getValue(key);
+                    latencies[sample++] = System.nanoTime() - start;
+                }
+            }
+            Arrays.sort(latencies);
+
+            LOG.infof("%10d %11d %13.1f %10d %9.1f %9.1f %9.1f %9.1f",
+                    endpoints, totalProperties,
+                    factoryNanos / 1_000_000.0, heap / 1024,
+                    percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99),
+                    latencies[latencies.length - 1] / 1000.0);
+        } finally {
+            delete(directory);
+        }
+    }
+
+    private static void assertResolution(SyntheticClowderConfig synthetic, Path directory, ClowderConfigSource source) throws IOException {
+        ReferenceClowderResolver reference = new ReferenceClowderResolver(
+                readClowderConfig(directory.resolve(SyntheticClowderConfig.CDAPPCONFIG_FILE).toFile()), synthetic.getRawProperties());
+        for (String key : synthetic.getClowderKeys()) {
+            assertEquals(reference.resolve(key), source.getValue(key), key);
+        }
+    }
+
+    private static ClowderConfigSource createConfigSourceFromFiles(Path directory) throws IOException {
+        ClowderConfig root = readClowderConfig(directory.resolve(SyntheticClowderConfig.CDAPPCONFIG_FILE).toFile());
+        Properties properties = new Properties();
+        try (InputStream is = Files.newInputStream(directory.resolve(SyntheticClowderConfig.APPLICATION_PROPERTIES_FILE))) {
+            properties.load(is);
+        }
+
+        Map<String, String> values = new HashMap<>();
+        properties.forEach((k, v) -> values.put((String) k, (String) v));
+        List<String> names = new ArrayList<>(values.keySet());
+        return createConfigSource(root, ClowderConfigSourceOptions.fromProperties(values), names.iterator(),
+                key -> new ConfigValue.ConfigValueBuilder()
+                        .withName(key)
+                        .withValue(values.get(key))
+                        .withConfigSourceName("PropertiesConfigSource[source=application.properties]")
+                        .withConfigSourceOrdinal(250)
+                        .build());
+    }
+
+    private static double percentile(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1000.0;
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memoryMXBean) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memoryMXBean.getHeapMemoryUsage().getUsed();
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -2,7 +2,15 @@ package com.redhat.cloud.common.clowder.configsource;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redhat.cloud.common.clowder.configsource.handlers.ClowderPropertyHandler;
+import com.redhat.cloud.common.clowder.configsource.handlers.EndpointsClowderPropertyHandler;
+import com.redhat.cloud.common.clowder.configsource.handlers.KafkaSecurityClowderPropertyHandler;
+import com.redhat.cloud.common.clowder.configsource.handlers.PropertyAvailability;
+import com.redhat.cloud.common.clowder.configsource.handlers.QuarkusKafkaStreamsClowderPropertyHandler;
+import com.redhat.cloud.common.clowder.configsource.utils.ContainerUtils;
+import com.redhat.cloud.common.clowder.configsource.utils.SecretDirectory;
 import io.smallrye.config.ConfigValue;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -10,29 +18,44 @@ import org.junit.jupiter.api.Test;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.OptionalInt;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 import static com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceFactory.loadPropertyHandlers;
 import static com.redhat.cloud.common.clowder.configsource.handlers.KafkaSecurityClowderPropertyHandler.CAMEL_KAFKA_SASL_JAAS_CONFIG_KEY;
 import static com.redhat.cloud.common.clowder.configsource.handlers.KafkaSecurityClowderPropertyHandler.CAMEL_KAFKA_SASL_MECHANISM_KEY;
 import static com.redhat.cloud.common.clowder.configsource.handlers.KafkaSecurityClowderPropertyHandler.CAMEL_KAFKA_SECURITY_PROTOCOL_KEY;
+import static com.redhat.cloud.common.clowder.configsource.handlers.KafkaSecurityClowderPropertyHandler.CAMEL_KAFKA_SSL_TRUSTSTORE_CERTIFICATES_KEY;
 import static com.redhat.cloud.common.clowder.configsource.handlers.KafkaSecurityClowderPropertyHandler.CAMEL_KAFKA_SSL_TRUSTSTORE_LOCATION_KEY;
 import static com.redhat.cloud.common.clowder.configsource.handlers.KafkaSecurityClowderPropertyHandler.CAMEL_KAFKA_SSL_TRUSTSTORE_TYPE_KEY;
 import static com.redhat.cloud.common.clowder.configsource.handlers.KafkaSecurityClowderPropertyHandler.KAFKA_SASL_JAAS_CONFIG_KEY;
 import static com.redhat.cloud.common.clowder.configsource.handlers.KafkaSecurityClowderPropertyHandler.KAFKA_SASL_MECHANISM_KEY;
 import static com.redhat.cloud.common.clowder.configsource.handlers.KafkaSecurityClowderPropertyHandler.KAFKA_SECURITY_PROTOCOL_KEY;
+import static com.redhat.cloud.common.clowder.configsource.handlers.KafkaSecurityClowderPropertyHandler.KAFKA_SSL_TRUSTSTORE_CERTIFICATES_KEY;
 import static com.redhat.cloud.common.clowder.configsource.handlers.KafkaSecurityClowderPropertyHandler.KAFKA_SSL_TRUSTSTORE_LOCATION_KEY;
 import static com.redhat.cloud.common.clowder.configsource.handlers.KafkaSecurityClowderPropertyHandler.KAFKA_SSL_TRUSTSTORE_TYPE_KEY;
 import static com.redhat.cloud.common.clowder.configsource.handlers.KafkaSecurityClowderPropertyHandler.KAFKA_SSL_TRUSTSTORE_TYPE_VALUE;
@@ -140,6 +163,25 @@ public class ConfigSourceTest {
         assertEquals("platform-partial-computed-property", topic);
     }
 
+    @Test
+    void testKafkaIncomingWithTopics() {
+        String topics = ccs.getValue("mp.messaging.incoming.many.topics");
+        assertEquals("platform-tmp-12345,platform-computed-property,not-in-clowder", topics);
+    }
+
+    @Test
+    void testKafkaIncomingWithPattern() {
+        assertEquals("true", ccs.getValue("mp.messaging.incoming.notifications.pattern"));
+        String pattern = ccs.getValue("mp.messaging.incoming.notifications.topic");
+        assertEquals("platform-tmp-12345|platform-tmp-666", pattern);
+        assertTrue(Pattern.matches(pattern, "platform-tmp-666"));
+    }
+
+    @Test
+    void testKafkaIncomingWithUnmatchedPattern() {
+        assertEquals("other\\..*", ccs.getValue("mp.messaging.incoming.unmatched-pattern.topic"));
+    }
+
     @Test
     void testDatabaseCredentials() {
         String user = ccs.getValue("quarkus.datasource.username");
@@ -170,6 +212,84 @@ public class ConfigSourceTest {
         assertEquals("require", sslMode);
     }
 
+    @Test
+    void testNamedDatasource() {
+        ClowderConfigSource source = configSourceWithFile("/cdappconfig.json",
+                new ClowderConfigSourceOptions(Map.of(ClowderConfigSourceOptions.DATABASE_DATASOURCES, "ro")));
+        assertEquals("aUser", source.getValue("quarkus.datasource.\"ro\".username"));
+        assertEquals("secret", source.getValue("quarkus.datasource.\"ro\".password"));
+        assertEquals("postgresql", source.getValue("quarkus.datasource.\"ro\".db-kind"));
+        assertEquals("jdbc:otel:postgresql://some.host:15432/some-db?ApplicationName=test-app-ro&sslmode=require",
+                source.getValue("quarkus.datasource.\"ro\".jdbc.url"));
+        assertEquals("postgresql://some.host:15432/some-db", source.getValue("quarkus.datasource.\"ro\".reactive.url"));
+    }
+
+    @Test
+    void testUnlistedNamedDatasource() {
+        // A named datasource that is not listed may not be managed by Clowder, it keeps its value
+        assertEquals("jdbc:otel:postgresql://127.0.0.1:5432/notifications?ApplicationName=test-app-ro",
+                ccs.getValue("quarkus.datasource.\"ro\".jdbc.url"));
+        assertNull(ccs.getValue("quarkus.datasource.\"ro\".username"));
+        assertNull(ccs.getValue("quarkus.datasource.\"ro\".reactive.url"));
+        // The default datasource is always mapped
+        assertEquals("aUser", ccs.getValue("quarkus.datasource.username"));
+    }
+
+    @Test
+    void testUnlistedNamedDatasourceWithoutDatabase() {
+        ClowderConfigSource source = configSourceWithFile("/cdappconfig3.json", new ClowderConfigSourceOptions(Map.of(
+                ClowderConfigSourceOptions.DATABASE_DATASOURCES, "other")));
+
+        // Only the datasources mapped to the Clowder database need the database section
+        assertEquals("jdbc:otel:postgresql://127.0.0.1:5432/notifications?ApplicationName=test-app-ro",
+                source.getValue("quarkus.datasource.\"ro\".jdbc.url"));
+        assertThrows(IllegalStateException.class, () -> source.getValue("quarkus.datasource.jdbc.url"));
+        assertThrows(IllegalStateException.class, () -> source.getValue("quarkus.datasource.\"other\".jdbc.url"));
+    }
+
+    @Test
+    void testReadReplicaDatasource() {
+        ClowderConfigSource source = configSourceWithFile("/cdappconfig.json", new ClowderConfigSourceOptions(Map.of(
+                ClowderConfigSourceOptions.DATABASE_READ_REPLICA_HOSTNAMES, "replica-1.host, replica-2.host",
+                ClowderConfigSourceOptions.DATABASE_READ_REPLICA_DATASOURCES, "ro")));
+
+        assertEquals("jdbc:otel:postgresql://some.host:15432,replica-1.host:15432,replica-2.host:15432/some-db"
+                        + "?ApplicationName=test-app-ro&sslmode=require&targetServerType=preferSecondary&loadBalanceHosts=true",
+                source.getValue("quarkus.datasource.\"ro\".jdbc.url"));
+        assertEquals("postgresql://replica-1.host:15432/some-db,postgresql://replica-2.host:15432/some-db",
+                source.getValue("quarkus.datasource.\"ro\".reactive.url"));
+
+        // The default datasource keeps using the primary only.
+        assertEquals("jdbc:postgresql://some.host:15432/some-db?ApplicationName=test-app&sslmode=require",
+                source.getValue("quarkus.datasource.jdbc.url"));
+        assertEquals("postgresql://some.host:15432/some-db", source.getValue("quarkus.datasource.reactive.url"));
+    }
+
+    @Test
+    void testDatabaseReactiveTuningDisabledByDefault() {
+        assertNull(ccs.getValue("quarkus.datasource.reactive.max-size"));
+        assertNull(ccs.getValue("quarkus.datasource.reactive.postgresql.pipelining-limit"));
+        assertFalse(ccs.getPropertyNames().contains("quarkus.datasource.reactive.max-size"));
+    }
+
+    @Test
+    void testDatabaseReactiveTuning() {
+        ClowderConfigSource source = configSourceWithFile("/cdappconfig.json",
+                new ClowderConfigSourceOptions(Map.of(ClowderConfigSourceOptions.REACTIVE_DATASOURCE_TUNING, "true")));
+
+        int eventLoops = 2 * Runtime.getRuntime().availableProcessors();
+        assertEquals(String.valueOf(Math.max(4, eventLoops)), source.getValue("quarkus.datasource.reactive.max-size"));
+        assertEquals(String.valueOf(eventLoops), source.getValue("quarkus.datasource.reactive.event-loop-size"));
+        assertEquals("true", source.getValue("quarkus.datasource.reactive.cache-prepared-statements"));
+        assertEquals("256", source.getValue("quarkus.datasource.reactive.postgresql.pipelining-limit"));
+
+        assertTrue(source.getPropertyNames().contains("quarkus.datasource.reactive.max-size"));
+        assertTrue(source.getPropertyNames().contains("quarkus.datasource.reactive.postgresql.pipelining-limit"));
+
+        // Values set by the application win over the computed ones.
+        assertEquals("PT1M", source.getValue("quarkus.datasource.reactive.idle-timeout"));
+    }
+
     @Test
     void testInMemoryDb() {
         String hosts = ccs.getValue("quarkus.redis.hosts");
@@ -211,6 +331,44 @@ public class ConfigSourceTest {
 
     }
 
+    @Test
+    void testLogCwBatching() {
+        ClowderConfigSource source = configSourceWithFile("/cdappconfig.json",
+                new ClowderConfigSourceOptions(Map.of(ClowderConfigSourceOptions.CLOUDWATCH_BATCHING, "true")));
+
+        assertEquals("1000", source.getValue("quarkus.log.cloudwatch.batch-size"));
+        assertEquals("PT5S", source.getValue("quarkus.log.cloudwatch.batch-period"));
+        assertEquals("10000", source.getValue("quarkus.log.cloudwatch.max-queue-size"));
+        assertEquals("true", source.getValue("quarkus.log.console.async"));
+        assertEquals("4096", source.getValue("quarkus.log.console.async.queue-length"));
+        assertEquals("discard", source.getValue("quarkus.log.console.async.overflow"));
+        assertTrue(source.getPropertyNames().contains("quarkus.log.cloudwatch.max-queue-size"));
+        assertTrue(source.getPropertyNames().contains("quarkus.log.console.async.overflow"));
+
+        // Not enabled by default
+        assertNull(ccs.getValue("quarkus.log.cloudwatch.max-queue-size"));
+        assertNull(ccs.getValue("quarkus.log.console.async"));
+    }
+
+    @Test
+    void testLogCwBatchingBlockOverflow() {
+        ClowderConfigSource source = configSourceWithFile("/cdappconfig.json", new ClowderConfigSourceOptions(Map.of(
+                ClowderConfigSourceOptions.CLOUDWATCH_BATCHING, "true",
+                ClowderConfigSourceOptions.LOGGING_OVERFLOW, "block")));
+
+        assertEquals("block", source.getValue("quarkus.log.console.async.overflow"));
+    }
+
+    @Test
+    void testLogCwBatchingWithNullProvider() {
+        ClowderConfigSource source = configSourceWithFile("/cdappconfig2.json",
+                new ClowderConfigSourceOptions(Map.of(ClowderConfigSourceOptions.CLOUDWATCH_BATCHING, "true")));
+
+        assertNull(source.getValue("quarkus.log.cloudwatch.max-queue-size"));
+        assertNull(source.getValue("quarkus.log.console.async"));
+        assertFalse(source.getPropertyNames().contains("quarkus.log.console.async"));
+    }
+
     @Test
     void testUnleash() {
         String token = ccs.getValue("quarkus.unleash.token");
@@ -219,6 +377,249 @@ public class ConfigSourceTest {
         assertEquals("http://localhost:4242/api", url);
     }
 
+    @Test
+    void testKafkaClientRack() {
+        ClowderConfigSource source = configSourceWithFile("/cdappconfig_kafka_racks.json",
+                new ClowderConfigSourceOptions(Map.of(ClowderConfigSourceOptions.KAFKA_CLIENT_RACK, "us-east-1b")));
+
+        assertEquals("us-east-1b", source.getValue("kafka.client.rack"));
+        assertEquals("us-east-1b", source.getValue("camel.component.kafka.additional-properties[client.rack]"));
+        assertTrue(source.getPropertyNames().contains("kafka.client.rack"));
+        assertEquals("broker-1.kafka.svc:9092,broker-3.us-east-1b.kafka.svc:9092,broker-0.kafka.svc:9092,broker-2.kafka.svc:9092",
+                source.getValue("kafka.bootstrap.servers"));
+        assertEquals(source.getValue("kafka.bootstrap.servers"), source.getValue("camel.component.kafka.brokers"));
+
+        // Not set by default, and the brokers keep the Clowder order
+        ClowderConfigSource noRack = configSourceWithFile("/cdappconfig_kafka_racks.json", exposeKafkaSslConfigKeys);
+        assertNull(noRack.getValue("kafka.client.rack"));
+        assertFalse(noRack.getPropertyNames().contains("kafka.client.rack"));
+        assertEquals("broker-0.kafka.svc:9092,broker-1.kafka.svc:9092,broker-2.kafka.svc:9092,broker-3.us-east-1b.kafka.svc:9092",
+                noRack.getValue("kafka.bootstrap.servers"));
+
+        // A hostname only matches on a whole label, not on a prefix of it
+        ClowderConfigSource region = configSourceWithFile("/cdappconfig_kafka_racks.json",
+                new ClowderConfigSourceOptions(Map.of(ClowderConfigSourceOptions.KAFKA_CLIENT_RACK, "us-east-1")));
+        assertEquals(noRack.getValue("kafka.bootstrap.servers"), region.getValue("kafka.bootstrap.servers"));
+    }
+
+    @Test
+    void testKafkaClientRackFromFile() throws IOException {
+        Path rackFile = Files.createTempFile("zone", ".txt");
+        try {
+            Files.writeString(rackFile, "us-east-1c\n");
+            ClowderConfigSource source = configSourceWithFile("/cdappconfig_kafka_racks.json",
+                    new ClowderConfigSourceOptions(Map.of(ClowderConfigSourceOptions.KAFKA_CLIENT_RACK_FILE, rackFile.toString())));
+
+            assertEquals("us-east-1c", source.getValue("kafka.client.rack"));
+            assertTrue(source.getValue("kafka.bootstrap.servers").startsWith("broker-2.kafka.svc:9092,"));
+        } finally {
+            Files.delete(rackFile);
+        }
+
+        // A missing file is ignored
+        ClowderConfigSource missing = configSourceWithFile("/cdappconfig_kafka_racks.json",
+                new ClowderConfigSourceOptions(Map.of(ClowderConfigSourceOptions.KAFKA_CLIENT_RACK_FILE, "/does/not/exist")));
+        assertNull(missing.getValue("kafka.client.rack"));
+    }
+
+    @Test
+    void testKafkaConsumerProfile() {
+        ClowderConfigSource source = configSourceWithFile("/cdappconfig.json",
+                new ClowderConfigSourceOptions(Map.of(ClowderConfigSourceOptions.KAFKA_CONSUMER_PROFILE, "throughput")));
+
+        int cpus = Runtime.getRuntime().availableProcessors();
+        assertEquals(String.valueOf(2 * cpus), source.getValue("mp.messaging.incoming.ingress.partitions"));
+        assertEquals("1000", source.getValue("mp.messaging.incoming.ingress.max.poll.records"));
+        assertEquals("1048576", source.getValue("mp.messaging.incoming.ingress.fetch.min.bytes"));
+        assertEquals("500", source.getValue("mp.messaging.incoming.ingress.fetch.max.wait.ms"));
+        assertEquals("4", source.getValue("mp.messaging.incoming.ingress.max-queue-size-factor"));
+        assertTrue(source.getPropertyNames().contains("mp.messaging.incoming.ingress.partitions"));
+        assertTrue(source.getPropertyNames().contains("mp.messaging.incoming.partial-computed.fetch.min.bytes"));
+        // The topic mapping still applies
+        assertEquals("platform-tmp-12345", source.getValue("mp.messaging.incoming.ingress.topic"));
+
+        // A value set by the app wins
+        assertEquals("50", source.getValue("mp.messaging.incoming.computed.max.poll.records"));
+
+        // Outgoing and unknown channels are left alone
+        assertFalse(source.getPropertyNames().contains("mp.messaging.outgoing.egress.partitions"));
+        assertNull(source.getValue("mp.messaging.incoming.unknown.partitions"));
+
+        // Not enabled by default
+        assertNull(ccs.getValue("mp.messaging.incoming.ingress.partitions"));
+        assertFalse(ccs.getPropertyNames().contains("mp.messaging.incoming.ingress.partitions"));
+    }
+
+    @Test
+    void testContainerThreadSizing() {
+        ClowderConfigSource source = configSourceWithFile("/cdappconfig.json",
+                new ClowderConfigSourceOptions(Map.of(ClowderConfigSourceOptions.CONTAINER_THREAD_SIZING, "true")));
+
+        int cpus = Runtime.getRuntime().availableProcessors();
+        assertEquals(String.valueOf(2 * cpus), source.getValue("quarkus.http.io-threads"));
+        assertEquals(String.valueOf(2 * cpus), source.getValue("quarkus.vertx.event-loops-pool-size"));
+        assertEquals(String.valueOf(Math.max(8 * cpus, 200)), source.getValue("quarkus.thread-pool.max-threads"));
+        assertEquals("1024", source.getValue("quarkus.http.accept-backlog"));
+        assertTrue(source.getPropertyNames().contains("quarkus.http.io-threads"));
+        assertEquals("8000", source.getValue("quarkus.http.port"));
+
+        // Not enabled by default
+        assertNull(ccs.getValue("quarkus.http.io-threads"));
+        assertFalse(ccs.getPropertyNames().contains("quarkus.vertx.event-loops-pool-size"));
+    }
+
+    @Test
+    void testCpuQuota() throws IOException {
+        Path cgroupRoot = Files.createTempDirectory("cgroup");
+        assertTrue(ContainerUtils.cpuQuota(cgroupRoot).isEmpty());
+
+        // cgroup v1
+        Files.createDirectories(cgroupRoot.resolve("cpu,cpuacct"));
+        Files.writeString(cgroupRoot.resolve("cpu,cpuacct/cpu.cfs_quota_us"), "-1\n");
+        Files.writeString(cgroupRoot.resolve("cpu,cpuacct/cpu.cfs_period_us"), "100000\n");
+        assertTrue(ContainerUtils.cpuQuota(cgroupRoot).isEmpty());
+        Files.writeString(cgroupRoot.resolve("cpu,cpuacct/cpu.cfs_quota_us"), "250000\n");
+        assertEquals(OptionalInt.of(3), ContainerUtils.cpuQuota(cgroupRoot));
+
+        // cgroup v2
+        Files.writeString(cgroupRoot.resolve("cpu.max"), "max 100000\n");
+        assertTrue(ContainerUtils.cpuQuota(cgroupRoot).isEmpty());
+        Files.writeString(cgroupRoot.resolve("cpu.max"), "50000 100000\n");
+        assertEquals(OptionalInt.of(1), ContainerUtils.cpuQuota(cgroupRoot));
+    }
+
+    @Test
+    void testKafkaConsumerLatencyProfile() {
+        ClowderConfigSource source = configSourceWithFile("/cdappconfig.json",
+                new ClowderConfigSourceOptions(Map.of(ClowderConfigSourceOptions.KAFKA_CONSUMER_PROFILE, "Latency")));
+
+        assertEquals(String.valueOf(Runtime.getRuntime().availableProcessors()), source.getValue("mp.messaging.incoming.ingress.partitions"));
+        assertEquals("1", source.getValue("mp.messaging.incoming.ingress.fetch.min.bytes"));
+        assertEquals("10", source.getValue("mp.messaging.incoming.ingress.fetch.max.wait.ms"));
+
+        assertThrows(IllegalStateException.class, () -> configSourceWithFile("/cdappconfig.json",
+                new ClowderConfigSourceOptions(Map.of(ClowderConfigSourceOptions.KAFKA_CONSUMER_PROFILE, "fastest"))));
+    }
+
+    @Test
+    void testKafkaConsumerProfileWithoutKafka() {
+        ClowderConfigSource source = configSourceWithFile("/cdappconfig3.json",
+                new ClowderConfigSourceOptions(Map.of(ClowderConfigSourceOptions.KAFKA_CONSUMER_PROFILE, "throughput")));
+
+        // The connectors and the profile items don't need the Kafka section
+        assertEquals("smallrye-kafka", source.getValue("mp.messaging.incoming.ingress.connector"));
+        assertNull(source.getValue("mp.messaging.incoming.ingress.partitions"));
+        assertEquals("50", source.getValue("mp.messaging.incoming.computed.max.poll.records"));
+    }
+
+    @Test
+    void testKafkaStreams() {
+        assertEquals("ephemeral-host.svc:29092", ccs.getValue(QuarkusKafkaStreamsClowderPropertyHandler.BOOTSTRAP_SERVERS_KEY));
+        assertEquals("platform-tmp-12345,platform-computed-property,not-in-clowder", ccs.getValue(QuarkusKafkaStreamsClowderPropertyHandler.TOPICS_KEY));
+        assertNull(ccs.getValue(QuarkusKafkaStreamsClowderPropertyHandler.SECURITY_PROTOCOL_KEY));
+        assertNull(ccs.getValue(QuarkusKafkaStreamsClowderPropertyHandler.SSL_TRUSTSTORE_LOCATION_KEY));
+
+        ClowderConfigSource source = configSourceWithFile("/cdappconfig_kafka_sasl_plain_authtype.json", exposeKafkaSslConfigKeys);
+        assertEquals("org.apache.kafka.common.security.plain.PlainLoginModule required username=\"john\" password=\"doe\";",
+                source.getValue(QuarkusKafkaStreamsClowderPropertyHandler.SASL_JAAS_CONFIG_KEY));
+        assertEquals("PLAIN", source.getValue(QuarkusKafkaStreamsClowderPropertyHandler.SASL_MECHANISM_KEY));
+        assertEquals("SASL_SSL", source.getValue(QuarkusKafkaStreamsClowderPropertyHandler.SECURITY_PROTOCOL_KEY));
+        assertEquals(KAFKA_SSL_TRUSTSTORE_TYPE_VALUE, source.getValue(QuarkusKafkaStreamsClowderPropertyHandler.SSL_TRUSTSTORE_TYPE_KEY));
+        assertEquals(source.getValue(KAFKA_SSL_TRUSTSTORE_LOCATION_KEY), source.getValue(QuarkusKafkaStreamsClowderPropertyHandler.SSL_TRUSTSTORE_LOCATION_KEY));
+        assertNull(source.getValue(QuarkusKafkaStreamsClowderPropertyHandler.SSL_TRUSTSTORE_CERTIFICATES_KEY));
+
+        source = configSourceWithFile("/cdappconfig_kafka_ssl_sec_type.json",
+                new ClowderConfigSourceOptions(Map.of(ClowderConfigSourceOptions.KAFKA_INLINE_TRUSTSTORE, "true")));
+        assertEquals("SSL", source.getValue(QuarkusKafkaStreamsClowderPropertyHandler.SECURITY_PROTOCOL_KEY));
+        assertEquals(EXPECTED_CERT, source.getValue(QuarkusKafkaStreamsClowderPropertyHandler.SSL_TRUSTSTORE_CERTIFICATES_KEY));
+        assertNull(source.getValue(QuarkusKafkaStreamsClowderPropertyHandler.SSL_TRUSTSTORE_LOCATION_KEY));
+        assertNull(source.getValue(QuarkusKafkaStreamsClowderPropertyHandler.SASL_JAAS_CONFIG_KEY));
+
+        // The brokers of the client rack come first, like for the Kafka clients
+        source = configSourceWithFile("/cdappconfig_kafka_racks.json",
+                new ClowderConfigSourceOptions(Map.of(ClowderConfigSourceOptions.KAFKA_CLIENT_RACK, "us-east-1b")));
+        assertEquals(source.getValue("kafka.bootstrap.servers"), source.getValue(QuarkusKafkaStreamsClowderPropertyHandler.BOOTSTRAP_SERVERS_KEY));
+        assertTrue(source.getValue(QuarkusKafkaStreamsClowderPropertyHandler.BOOTSTRAP_SERVERS_KEY).startsWith("broker-1.kafka.svc:9092,"));
+    }
+
+    @Test
+    void testKafkaStreamsSaslBrokerWithoutSasl() {
+        ClowderConfig root = readClowderConfig("/cdappconfig_kafka_sasl_plain_authtype.json");
+        root.kafka.brokers.forEach(broker -> broker.sasl = null);
+        Map<String, ConfigValue> properties = Map.of(
+                QuarkusKafkaStreamsClowderPropertyHandler.SECURITY_PROTOCOL_KEY, ConfigValue.builder()
+                        .withName(QuarkusKafkaStreamsClowderPropertyHandler.SECURITY_PROTOCOL_KEY).withValue("SASL_SSL").build());
+        ClowderConfigSource source = ClowderConfigSourceFactory.createConfigSource(root, new ClowderConfigSourceOptions(Map.of()),
+                properties.keySet().iterator(), properties::get);
+
+        // The application values are kept instead of failing
+        assertEquals("SASL_SSL", source.getValue(QuarkusKafkaStreamsClowderPropertyHandler.SECURITY_PROTOCOL_KEY));
+        assertNull(source.getValue(QuarkusKafkaStreamsClowderPropertyHandler.SASL_JAAS_CONFIG_KEY));
+        assertNull(source.getValue(QuarkusKafkaStreamsClowderPropertyHandler.SASL_MECHANISM_KEY));
+    }
+
+    @Test
+    void testKafkaStreamsTuning() {
+        ClowderConfigSource source = configSourceWithFile("/cdappconfig.json", new ClowderConfigSourceOptions(Map.of(
+                ClowderConfigSourceOptions.KAFKA_STREAMS_TUNING, "true",
+                ClowderConfigSourceOptions.KAFKA_STREAMS_STATE_DIR, "/var/lib/kafka-streams")));
+
+        assertEquals(String.valueOf(Runtime.getRuntime().availableProcessors()), source.getValue(QuarkusKafkaStreamsClowderPropertyHandler.NUM_STREAM_THREADS_KEY));
+        assertEquals("/var/lib/kafka-streams", source.getValue(QuarkusKafkaStreamsClowderPropertyHandler.STATE_DIR_KEY));
+        assertTrue(source.getPropertyNames().contains(QuarkusKafkaStreamsClowderPropertyHandler.NUM_STREAM_THREADS_KEY));
+        assertTrue(source.getPropertyNames().contains(QuarkusKafkaStreamsClowderPropertyHandler.STATE_DIR_KEY));
+        assertTrue(source.getPropertyNames().contains(QuarkusKafkaStreamsClowderPropertyHandler.CACHE_MAX_BYTES_BUFFERING_KEY));
+        // A value set by the app wins
+        assertEquals("1048576", source.getValue(QuarkusKafkaStreamsClowderPropertyHandler.CACHE_MAX_BYTES_BUFFERING_KEY));
+
+        // Without a state directory, the Kafka Streams default is kept
+        source = configSourceWithFile("/cdappconfig.json",
+                new ClowderConfigSourceOptions(Map.of(ClowderConfigSourceOptions.KAFKA_STREAMS_TUNING, "true")));
+        assertNull(source.getValue(QuarkusKafkaStreamsClowderPropertyHandler.STATE_DIR_KEY));
+        assertFalse(source.getPropertyNames().contains(QuarkusKafkaStreamsClowderPropertyHandler.STATE_DIR_KEY));
+
+        // Not enabled by default
+        assertNull(ccs.getValue(QuarkusKafkaStreamsClowderPropertyHandler.NUM_STREAM_THREADS_KEY));
+        assertFalse(ccs.getPropertyNames().contains(QuarkusKafkaStreamsClowderPropertyHandler.NUM_STREAM_THREADS_KEY));
+    }
+
+    @Test
+    void testUnleashFastStartup() {
+        ClowderConfigSource source = configSourceWithFile("/cdappconfig.json",
+                new ClowderConfigSourceOptions(Map.of(ClowderConfigSourceOptions.UNLEASH_FAST_STARTUP, "true")));
+
+        assertEquals("false", source.getValue("quarkus.unleash.synchronous-fetch-on-initialisation"));
+        assertEquals("5", source.getValue("quarkus.unleash.fetch-toggles-interval"));
+        assertEquals("60", source.getValue("quarkus.unleash.send-metrics-interval"));
+        assertTrue(source.getPropertyNames().contains("quarkus.unleash.synchronous-fetch-on-initialisation"));
+        // No backup file unless one is configured, java.io.tmpdir doesn't outlive the pod
+        assertNull(source.getValue("quarkus.unleash.backup-file"));
+        assertFalse(source.getPropertyNames().contains("quarkus.unleash.backup-file"));
+
+        // Not enabled by default
+        assertNull(ccs.getValue("quarkus.unleash.backup-file"));
+        assertFalse(ccs.getPropertyNames().contains("quarkus.unleash.backup-file"));
+    }
+
+    @Test
+    void testUnleashFastStartupWithBackupFile() {
+        ClowderConfigSource source = configSourceWithFile("/cdappconfig.json", new ClowderConfigSourceOptions(Map.of(
+                ClowderConfigSourceOptions.UNLEASH_FAST_STARTUP, "true",
+                ClowderConfigSourceOptions.UNLEASH_BACKUP_FILE, "/var/cache/unleash/repo.json")));
+
+        assertEquals("/var/cache/unleash/repo.json", source.getValue("quarkus.unleash.backup-file"));
+        assertTrue(source.getPropertyNames().contains("quarkus.unleash.backup-file"));
+    }
+
+    @Test
+    void testUnleashFastStartupNotFound() {
+        ClowderConfigSource source = configSourceWithFile("/cdappconfig3.json",
+                new ClowderConfigSourceOptions(Map.of(ClowderConfigSourceOptions.UNLEASH_FAST_STARTUP, "true")));
+
+        assertNull(source.getValue("quarkus.unleash.backup-file"));
+        assertFalse(source.getPropertyNames().contains("quarkus.unleash.backup-file"));
+    }
+
     @Test
     void testUnleashNoPort() {
         ClowderConfigSource ccs2 = configSourceWithFile("/cdappconfig2.json", exposeKafkaSslConfigKeys);
@@ -298,11 +699,116 @@ public class ConfigSourceTest {
         assertEquals("http://n-gw.svc:8000", ccs.getValue("clowder.endpoints.notifications-gw"));
     }
 
+    @Test
+    void testClowderEndpointConnectionParams() {
+        assertEquals("50", ccs.getValue("clowder.endpoints.notifications-api.connection-pool-size"));
+        assertEquals("true", ccs.getValue("clowder.endpoints.notifications-api.keep-alive-enabled"));
+        assertEquals("false", ccs.getValue("clowder.endpoints.notifications-api.http2"));
+        assertEquals("5000", ccs.getValue("clowder.endpoints.notifications-api.connect-timeout"));
+        assertEquals("30000", ccs.getValue("clowder.endpoints.notifications-api.read-timeout"));
+
+        ClowderConfigSource source = configSourceWithFile("/cdappconfig_secured_endpoint.json", exposeKafkaSslConfigKeys);
+        assertEquals("true", source.getValue("clowder.endpoints.notifications-api.http2"));
+    }
+
+    @Test
+    void testRestClientsFromEndpoints() {
+        ClowderConfigSource source = configSourceWithFile("/cdappconfig.json",
+                new ClowderConfigSourceOptions(Map.of(ClowderConfigSourceOptions.REST_CLIENTS_FROM_ENDPOINTS, "true")));
+
+        assertEquals("http://n-api.svc:8000", source.getValue("quarkus.rest-client.\"notifications-api\".url"));
+        assertEquals("http://n-gw.svc:8000", source.getValue("quarkus.rest-client.notifications-gw.url"));
+        assertEquals("50", source.getValue("quarkus.rest-client.\"notifications-api\".connection-pool-size"));
+        assertEquals("true", source.getValue("quarkus.rest-client.\"notifications-api\".keep-alive-enabled"));
+        assertEquals("false", source.getValue("quarkus.rest-client.\"notifications-api\".http2"));
+        assertEquals("5000", source.getValue("quarkus.rest-client.\"notifications-api\".connect-timeout"));
+        assertEquals("30000", source.getValue("quarkus.rest-client.\"notifications-api\".read-timeout"));
+        assertNull(source.getValue("quarkus.rest-client.\"notifications-api\".trust-store"));
+        assertNull(source.getValue("quarkus.rest-client.\"unknown-api\".url"));
+
+        // The URL comes from Clowder, the connection settings from the application win
+        assertEquals("http://n-gw.svc:8000", source.getValue("quarkus.rest-client.\"notifications-gw\".url"));
+        assertEquals("1000", source.getValue("quarkus.rest-client.\"notifications-gw\".read-timeout"));
+
+        assertTrue(source.getPropertyNames().contains("quarkus.rest-client.\"notifications-api\".url"));
+        assertTrue(source.getPropertyNames().contains("quarkus.rest-client.\"notifications-api\".read-timeout"));
+        assertFalse(source.getPropertyNames().contains("quarkus.rest-client.\"notifications-api\".trust-store"));
+
+        // The provided keys keep the same order on every run
+        String prefix = "quarkus.rest-client.\"notifications-api\".";
+        EndpointsClowderPropertyHandler handler = new EndpointsClowderPropertyHandler(readClowderConfig("/cdappconfig.json"),
+                new ClowderConfigSourceOptions(Map.of(ClowderConfigSourceOptions.REST_CLIENTS_FROM_ENDPOINTS, "true")));
+        assertEquals(List.of(prefix + "url", prefix + "connection-pool-size", prefix + "keep-alive-enabled", prefix + "http2",
+                        prefix + "connect-timeout", prefix + "read-timeout"),
+                handler.provides().stream().filter(property -> property.startsWith(prefix)).toList());
+
+        // Not enabled by default
+        assertNull(ccs.getValue("quarkus.rest-client.\"notifications-api\".url"));
+        assertFalse(ccs.getPropertyNames().contains("quarkus.rest-client.\"notifications-api\".url"));
+    }
+
+    @Test
+    void testSecuredRestClientsFromEndpoints() throws KeyStoreException, IOException, CertificateException, NoSuchAlgorithmException {
+        ClowderConfigSource source = configSourceWithFile("/cdappconfig_secured_endpoint.json",
+                new ClowderConfigSourceOptions(Map.of(ClowderConfigSourceOptions.REST_CLIENTS_FROM_ENDPOINTS, "true")));
+
+        assertEquals("https://n-api.svc:9999", source.getValue("quarkus.rest-client.\"notifications-api\".url"));
+        assertEquals("true", source.getValue("quarkus.rest-client.\"notifications-api\".http2"));
+        assertTrue(source.getPropertyNames().contains("quarkus.rest-client.\"notifications-api\".trust-store"));
+
+        String path = source.getValue("quarkus.rest-client.\"notifications-api\".trust-store");
+        String password = source.getValue("quarkus.rest-client.\"notifications-api\".trust-store-password");
+        String type = source.getValue("quarkus.rest-client.\"notifications-api\".trust-store-type");
+
+        KeyStore keyStore = KeyStore.getInstance(type);
+        keyStore.load(new FileInputStream(path), password.toCharArray());
+        assertEquals(1, Collections.list(keyStore.aliases()).size());
+    }
+
+    @Test
+    void testTlsRegistry() {
+        ClowderConfigSource source = configSourceWithFile("/cdappconfig_secured_endpoint.json", new ClowderConfigSourceOptions(Map.of(
+                ClowderConfigSourceOptions.TLS_REGISTRY, "true",
+                ClowderConfigSourceOptions.REST_CLIENTS_FROM_ENDPOINTS, "true")));
+
+        assertEquals("target/test-classes/cert01.pem", source.getValue("quarkus.tls.\"clowder\".trust-store.pem.certs"));
+        assertTrue(source.getPropertyNames().contains("quarkus.tls.\"clowder\".trust-store.pem.certs"));
+        assertEquals("clowder", source.getValue("clowder.endpoints.notifications-api.tls-configuration-name"));
+
+        // The REST clients use the TLS configuration instead of the trust store
+        assertEquals("clowder", source.getValue("quarkus.rest-client.\"notifications-api\".tls-configuration-name"));
+        assertTrue(source.getPropertyNames().contains("quarkus.rest-client.\"notifications-api\".tls-configuration-name"));
+        assertFalse(source.getPropertyNames().contains("quarkus.rest-client.\"notifications-api\".trust-store"));
+
+        ClowderConfigSource named = configSourceWithFile("/cdappconfig_secured_endpoint.json", new ClowderConfigSourceOptions(Map.of(
+                ClowderConfigSourceOptions.TLS_REGISTRY, "true",
+                ClowderConfigSourceOptions.TLS_CONFIGURATION_NAME, "platform")));
+        assertEquals("target/test-classes/cert01.pem", named.getValue("quarkus.tls.\"platform\".trust-store.pem.certs"));
+        assertNull(named.getValue("quarkus.tls.\"clowder\".trust-store.pem.certs"));
+        assertEquals("platform", named.getValue("clowder.endpoints.notifications-api.tls-configuration-name"));
+
+        // Not enabled by default, and only for the endpoints using TLS
+        ClowderConfigSource disabled = configSourceWithFile("/cdappconfig_secured_endpoint.json", exposeKafkaSslConfigKeys);
+        assertNull(disabled.getValue("quarkus.tls.\"clowder\".trust-store.pem.certs"));
+        assertNull(disabled.getValue("clowder.endpoints.notifications-api.tls-configuration-name"));
+        ClowderConfigSource plain = configSourceWithFile("/cdappconfig.json", new ClowderConfigSourceOptions(Map.of(
+                ClowderConfigSourceOptions.TLS_REGISTRY, "true")));
+        assertNull(plain.getValue("clowder.endpoints.notifications-api.tls-configuration-name"));
+    }
+
     @Test
     void testUnknownClowderEndpoint() {
         assertNull(ccs.getValue("clowder.endpoints.unknown"));
     }
 
+    @Test
+    void testInvalidClowderEndpointFormat() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> ccs.getValue("clowder.endpoints.notifications-api.url.extra"));
+        // Every supported param is listed
+        assertTrue(e.getMessage().contains("|read-timeout|tls-configuration-name]"), e.getMessage());
+    }
+
     @Test
     void testVerifyFullSslMode() throws IOException {
         ClowderConfigSource ccs2 = configSourceWithFile("/cdappconfig_verify-full_valid.json", exposeKafkaSslConfigKeys);
@@ -526,6 +1032,129 @@ public class ConfigSourceTest {
         assertTrue(ccs3.getPropertyNames().contains(CAMEL_KAFKA_SSL_TRUSTSTORE_TYPE_KEY));
     }
 
+    @Test
+    void testKafkaSslKeysProvidedWithoutCertFile() throws IOException {
+        long certFilesBefore = countKafkaCertFiles();
+        ClowderConfigSource source = configSourceWithFile("/cdappconfig_kafka_ssl_sec_type.json", true);
+
+        // The keys are listed, but the cert file is only written when the location is read
+        assertTrue(source.getPropertyNames().contains(KAFKA_SSL_TRUSTSTORE_LOCATION_KEY));
+        assertTrue(source.getPropertyNames().contains(CAMEL_KAFKA_SSL_TRUSTSTORE_TYPE_KEY));
+        assertEquals(certFilesBefore, countKafkaCertFiles());
+
+        String location = source.getValue(KAFKA_SSL_TRUSTSTORE_LOCATION_KEY);
+        assertTrue(Files.exists(Path.of(location)));
+    }
+
+    @Test
+    void testCertFilesInSecretDirectory() throws IOException {
+        ClowderConfigSource source = configSourceWithFile("/cdappconfig_kafka_ssl_sec_type.json", true);
+        long certFilesBefore = countKafkaCertFiles();
+
+        Path location = Path.of(source.getValue(KAFKA_SSL_TRUSTSTORE_LOCATION_KEY));
+        assertEquals(SecretDirectory.getDirectory(), location.getParent());
+        assertEquals(EXPECTED_CERT, Files.readString(location));
+
+        // The same content is written only once
+        assertEquals(location.toString(), source.getValue(CAMEL_KAFKA_SSL_TRUSTSTORE_LOCATION_KEY));
+        assertEquals(location.toString(), configSourceWithFile("/cdappconfig_kafka_ssl_sec_type.json", true)
+                .getValue(KAFKA_SSL_TRUSTSTORE_LOCATION_KEY));
+        assertTrue(countKafkaCertFiles() <= certFilesBefore + 1);
+
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            assertEquals(PosixFilePermissions.fromString("rwx------"), Files.getPosixFilePermissions(SecretDirectory.getDirectory()));
+            assertEquals(PosixFilePermissions.fromString("rw-------"), Files.getPosixFilePermissions(location));
+        }
+    }
+
+    @Test
+    void testStaleSecretDirectories() throws IOException {
+        Path base = Files.createTempDirectory("secrets");
+        // Left by a killed process: a lock file with content, not locked
+        Path stale = Files.createDirectory(base.resolve("clowder-config-source-123"));
+        Files.writeString(stale.resolve(".lock"), "1");
+        // Being created by another process: the lock file is still empty
+        Path starting = Files.createDirectory(base.resolve("clowder-config-source-456"));
+        Files.createFile(starting.resolve(".lock"));
+        // No lock file, nothing proves it is stale
+        Path unknown = Files.createDirectory(base.resolve("clowder-config-source-1"));
+        // Locked by a live process
+        Path live = Files.createDirectory(base.resolve("clowder-config-source-789"));
+        Files.writeString(live.resolve(".lock"), "1");
+
+        try (FileChannel channel = FileChannel.open(live.resolve(".lock"), StandardOpenOption.WRITE);
+             FileLock lock = channel.lock()) {
+            SecretDirectory.deleteStaleDirectories(base);
+        }
+
+        assertFalse(Files.exists(stale));
+        assertTrue(Files.exists(starting));
+        assertTrue(Files.exists(unknown));
+        assertTrue(Files.exists(live));
+        // The directory of this process is locked too
+        SecretDirectory.deleteStaleDirectories(SecretDirectory.getDirectory().getParent());
+        assertTrue(Files.exists(SecretDirectory.getDirectory()));
+    }
+
+    @Test
+    void testKafkaSecurityAvailability() {
+        ClowderConfig root = readClowderConfig("/cdappconfig_kafka_ssl_sec_type.json");
+        KafkaSecurityClowderPropertyHandler handler = new KafkaSecurityClowderPropertyHandler(root, true);
+        assertEquals(PropertyAvailability.AVAILABLE, handler.availability(KAFKA_SSL_TRUSTSTORE_LOCATION_KEY));
+        assertEquals(PropertyAvailability.AVAILABLE, handler.availability(KAFKA_SECURITY_PROTOCOL_KEY));
+        assertEquals(PropertyAvailability.UNAVAILABLE, handler.availability(KAFKA_SASL_MECHANISM_KEY));
+
+        // Without a CA there's no trust store, and probing it must not throw
+        root.kafka.brokers.get(0).cacert = null;
+        handler = new KafkaSecurityClowderPropertyHandler(root, true);
+        assertEquals(PropertyAvailability.UNAVAILABLE, handler.availability(KAFKA_SSL_TRUSTSTORE_LOCATION_KEY));
+        assertEquals(PropertyAvailability.UNAVAILABLE, handler.availability(KAFKA_SSL_TRUSTSTORE_TYPE_KEY));
+        ClowderConfigSource source = new ClowderConfigSource(root, new HashMap<>(APP_PROPS_MAP), List.of(handler));
+        assertTrue(source.getPropertyNames().contains(KAFKA_SECURITY_PROTOCOL_KEY));
+        assertFalse(source.getPropertyNames().contains(KAFKA_SSL_TRUSTSTORE_TYPE_KEY));
+    }
+
+    @Test
+    void testKafkaSslInlineTruststore() throws IOException {
+        long certFilesBefore = countKafkaCertFiles();
+        ClowderConfigSource source = configSourceWithFile("/cdappconfig_kafka_ssl_sec_type.json", new ClowderConfigSourceOptions(Map.of(
+                ClowderConfigSourceOptions.EXPOSE_KAFKA_SSL_CONFIG_KEYS, "true",
+                ClowderConfigSourceOptions.KAFKA_INLINE_TRUSTSTORE, "true")));
+
+        assertEquals(EXPECTED_CERT, source.getValue(KAFKA_SSL_TRUSTSTORE_CERTIFICATES_KEY));
+        assertEquals(EXPECTED_CERT, source.getValue(CAMEL_KAFKA_SSL_TRUSTSTORE_CERTIFICATES_KEY));
+        assertEquals(KAFKA_SSL_TRUSTSTORE_TYPE_VALUE, source.getValue(KAFKA_SSL_TRUSTSTORE_TYPE_KEY));
+        assertEquals(KAFKA_SSL_TRUSTSTORE_TYPE_VALUE, source.getValue(CAMEL_KAFKA_SSL_TRUSTSTORE_TYPE_KEY));
+        assertNull(source.getValue(KAFKA_SSL_TRUSTSTORE_LOCATION_KEY));
+        assertNull(source.getValue(CAMEL_KAFKA_SSL_TRUSTSTORE_LOCATION_KEY));
+
+        assertTrue(source.getPropertyNames().contains(KAFKA_SSL_TRUSTSTORE_CERTIFICATES_KEY));
+        assertTrue(source.getPropertyNames().contains(CAMEL_KAFKA_SSL_TRUSTSTORE_CERTIFICATES_KEY));
+        assertFalse(source.getPropertyNames().contains(KAFKA_SSL_TRUSTSTORE_LOCATION_KEY));
+        assertFalse(source.getPropertyNames().contains(CAMEL_KAFKA_SSL_TRUSTSTORE_LOCATION_KEY));
+
+        // No file is written
+        assertEquals(certFilesBefore, countKafkaCertFiles());
+    }
+
+    @Test
+    void testKafkaSaslInlineTruststore() throws IOException {
+        long certFilesBefore = countKafkaCertFiles();
+        ClowderConfigSource source = configSourceWithFile("/cdappconfig_kafka_sasl_scram_authtype.json",
+                new ClowderConfigSourceOptions(Map.of(ClowderConfigSourceOptions.KAFKA_INLINE_TRUSTSTORE, "true")));
+
+        assertEquals("SASL_SSL", source.getValue(KAFKA_SECURITY_PROTOCOL_KEY));
+        assertEquals(EXPECTED_CERT, source.getValue(KAFKA_SSL_TRUSTSTORE_CERTIFICATES_KEY));
+        assertEquals(EXPECTED_CERT, source.getValue(CAMEL_KAFKA_SSL_TRUSTSTORE_CERTIFICATES_KEY));
+        assertEquals(KAFKA_SSL_TRUSTSTORE_TYPE_VALUE, source.getValue(KAFKA_SSL_TRUSTSTORE_TYPE_KEY));
+        assertNull(source.getValue(KAFKA_SSL_TRUSTSTORE_LOCATION_KEY));
+        assertEquals(certFilesBefore, countKafkaCertFiles());
+
+        // Without the flag, the certificates keys are left alone
+        assertNull(configSourceWithFile("/cdappconfig_kafka_sasl_scram_authtype.json", exposeKafkaSslConfigKeys)
+                .getValue(KAFKA_SSL_TRUSTSTORE_CERTIFICATES_KEY));
+    }
+
     @Test
     void testKafkaSslUsingCommonCa() {
         final ClowderConfigSource ccs2 = configSourceWithFile("/cdappconfig_kafka_ssl_sec_type_common_ca.json", exposeKafkaSslConfigKeys);
@@ -608,6 +1237,125 @@ public class ConfigSourceTest {
         assertEquals(3, Collections.list(keyStore.aliases()).size());
     }
 
+    @Test
+    void testConcurrentTrustStoreReads() throws Exception {
+        ClowderConfigSource cc = configSourceWithFile("/cdappconfig_secured_endpoint.json", exposeKafkaSslConfigKeys);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<String>> paths = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                paths.add(executor.submit(() -> {
+                    start.await();
+                    return cc.getValue("clowder.endpoints.notifications-api.trust-store-path");
+                }));
+            }
+            start.countDown();
+
+            String path = paths.get(0).get();
+            assertNotNull(path);
+            for (Future<String> other : paths) {
+                assertEquals(path, other.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testTrustStoreIsReusedForTheSameCaFile() {
+        ClowderConfigSource first = configSourceWithFile("/cdappconfig_secured_endpoint.json", exposeKafkaSslConfigKeys);
+        ClowderConfigSource second = configSourceWithFile("/cdappconfig_secured_endpoint.json", exposeKafkaSslConfigKeys);
+
+        assertEquals(first.getValue("clowder.endpoints.notifications-api.trust-store-path"),
+                second.getValue("clowder.endpoints.notifications-api.trust-store-path"));
+    }
+
+    @Test
+    void testPropertyNamesAreReadOnly() {
+        assertThrows(UnsupportedOperationException.class, () -> ccs.getPropertyNames().remove("quarkus.http.port"));
+    }
+
+    @Test
+    void testWarmUp() {
+        ClowderConfigSource cc = configSourceWithFile("/cdappconfig_secured_endpoint.json", exposeKafkaSslConfigKeys);
+
+        cc.warmUp(Runnable::run).join();
+
+        String path = cc.getValue("clowder.endpoints.notifications-api.trust-store-path");
+        assertTrue(Files.exists(Path.of(path)));
+    }
+
+    @Test
+    void testWarmUpIgnoresMissingSections() {
+        ClowderConfigSource cc = configSourceWithFile("/cdappconfig3.json", exposeKafkaSslConfigKeys);
+
+        // The failures are reported when the properties are actually read
+        cc.warmUp(Runnable::run).join();
+    }
+
+    @Test
+    void testExplain() {
+        KeyExplanation explanation = ccs.explain("mp.messaging.incoming.computed.topic");
+        assertEquals("platform-computed-property", explanation.value());
+        assertEquals(KeyExplanation.Resolution.HANDLER, explanation.resolution());
+        assertEquals("com.redhat.cloud.common.clowder.configsource.handlers.MicroprofileMessagingClowderPropertyHandler", explanation.handler());
+        assertEquals(new KeyExplanation.Expansion("custom.property.topic", "custom.property.topic", KeyExplanation.Origin.PROPERTY, "custom-topic"),
+                explanation.expansions().get(0));
+        assertTrue(explanation.lookups().stream().anyMatch(lookup -> lookup.existing() && lookup.key().equals("mp.messaging.incoming.computed.topic")));
+        assertNull(explanation.error());
+
+        explanation = ccs.explain("mp.messaging.outgoing.system.topic");
+        assertEquals(new KeyExplanation.Expansion("NO_EXIST:platform.notifications.system", "NO_EXIST", KeyExplanation.Origin.DEFAULT, "platform.notifications.system"),
+                explanation.expansions().get(0));
+
+        explanation = ccs.explain("custom.property.topic");
+        assertEquals("custom-topic", explanation.value());
+        assertEquals(KeyExplanation.Resolution.EXISTING_VALUE, explanation.resolution());
+        assertNull(explanation.handler());
+
+        // A value set by the app wins over the tuning value
+        ClowderConfigSource tuned = configSourceWithFile("/cdappconfig.json",
+                new ClowderConfigSourceOptions(Map.of(ClowderConfigSourceOptions.KAFKA_STREAMS_TUNING, "true")));
+        assertEquals(KeyExplanation.Resolution.HANDLER_FALLBACK, tuned.explain(QuarkusKafkaStreamsClowderPropertyHandler.CACHE_MAX_BYTES_BUFFERING_KEY).resolution());
+
+        ClowderConfigSource failing = configSourceWithFile("/cdappconfig3.json", exposeKafkaSslConfigKeys);
+        explanation = failing.explain("kafka.bootstrap.servers");
+        assertEquals(KeyExplanation.Resolution.FAILED, explanation.resolution());
+        assertNotNull(explanation.error());
+        assertNull(explanation.value());
+        assertThrows(IllegalStateException.class, () -> failing.getValue("kafka.bootstrap.servers"));
+    }
+
+    @Test
+    void testExplainFilesAndSecrets() {
+        ClowderConfigSource source = configSourceWithFile("/cdappconfig_kafka_sasl_plain_authtype.json", true);
+
+        KeyExplanation explanation = source.explain(KAFKA_SSL_TRUSTSTORE_LOCATION_KEY);
+        assertNotNull(explanation.value());
+        assertEquals(List.of(explanation.value()), explanation.files());
+        // With an SSL broker the type key reads the location, the nested lookup is part of the explanation
+        explanation = configSourceWithFile("/cdappconfig_kafka_ssl_sec_type.json", true).explain(KAFKA_SSL_TRUSTSTORE_TYPE_KEY);
+        assertEquals(KeyExplanation.Resolution.HANDLER, explanation.resolution());
+        assertEquals(List.of(new KeyExplanation.Lookup(KAFKA_SSL_TRUSTSTORE_LOCATION_KEY, false, explanation.lookups().get(0).nanos())),
+                explanation.lookups());
+
+        explanation = source.explain(KAFKA_SASL_JAAS_CONFIG_KEY);
+        assertTrue(explanation.value().contains("doe"));
+        assertFalse(explanation.toString().contains("doe"));
+
+        List<KeyExplanation> explanations = source.explainAll();
+        assertFalse(explanations.isEmpty());
+        assertTrue(explanations.stream().anyMatch(e -> e.key().equals(KAFKA_SASL_JAAS_CONFIG_KEY)));
+        for (int i = 1; i < explanations.size(); i++) {
+            assertTrue(explanations.get(i - 1).key().compareTo(explanations.get(i).key()) < 0);
+        }
+
+        // The lookups are no longer traced
+        assertEquals("PLAIN", source.getValue(KAFKA_SASL_MECHANISM_KEY));
+    }
+
     @Test
     void testWhenTlsPortIsOff() {
         ClowderConfigSource cc = configSourceWithFile("/cdappconfig_tls_is_off.json", exposeKafkaSslConfigKeys);
@@ -899,7 +1647,187 @@ public class ConfigSourceTest {
         assertEquals("", source.getValue("clowder.optional-private-endpoints.notifications-api.trust-store-type"));
     }
 
+    @Test
+    void testAvailablePropertiesResolve() {
+        ClowderConfigSourceOptions options = new ClowderConfigSourceOptions(Map.of(
+                ClowderConfigSourceOptions.EXPOSE_KAFKA_SSL_CONFIG_KEYS, "true",
+                ClowderConfigSourceOptions.REACTIVE_DATASOURCE_TUNING, "true",
+                ClowderConfigSourceOptions.CLOUDWATCH_BATCHING, "true",
+                ClowderConfigSourceOptions.UNLEASH_FAST_STARTUP, "true",
+                ClowderConfigSourceOptions.REST_CLIENTS_FROM_ENDPOINTS, "true",
+                ClowderConfigSourceOptions.KAFKA_CONSUMER_PROFILE, "balanced",
+                ClowderConfigSourceOptions.CONTAINER_THREAD_SIZING, "true",
+                ClowderConfigSourceOptions.KAFKA_STREAMS_TUNING, "true"));
+        for (String filename : List.of("/cdappconfig.json", "/cdappconfig_kafka_sasl_scram_authtype.json",
+                "/cdappconfig_secured_endpoint.json", "/cdappconfig_verify-full_valid.json")) {
+            assertAvailablePropertiesResolve(filename, options);
+        }
+
+        // A handler wrongly reporting a value doesn't break getProperties()
+        ClowderConfig root = readClowderConfig("/cdappconfig.json");
+        ClowderPropertyHandler wrong = new ClowderPropertyHandler(root) {
+            @Override
+            public boolean handles(String property) {
+                return property.equals("acg.test.missing");
+            }
+
+            @Override
+            public String handle(String property, ClowderConfigSource configSource) {
+                return null;
+            }
+
+            @Override
+            public List<String> provides() {
+                return List.of("acg.test.missing");
+            }
+
+            @Override
+            public PropertyAvailability availability(String property) {
+                return PropertyAvailability.AVAILABLE;
+            }
+        };
+        ClowderConfigSource source = new ClowderConfigSource(root, new HashMap<>(APP_PROPS_MAP), List.of(wrong));
+        assertTrue(source.getPropertyNames().contains("acg.test.missing"));
+        assertFalse(source.getProperties().containsKey("acg.test.missing"));
+    }
+
+    private static void assertAvailablePropertiesResolve(String filename, ClowderConfigSourceOptions options) {
+        ClowderConfig root = readClowderConfig(filename);
+        List<ClowderPropertyHandler> handlers = loadPropertyHandlers(root, options);
+        ClowderConfigSource source = new ClowderConfigSource(root, new HashMap<>(APP_PROPS_MAP), handlers);
+
+        // The keys registered without computing their value must have one
+        for (ClowderPropertyHandler handler : handlers) {
+            for (String property : handler.provides(source)) {
+                if (handler.availability(property) == PropertyAvailability.AVAILABLE) {
+                    assertNotNull(source.getValue(property), filename + ": " + property);
+                }
+            }
+        }
+        assertEquals(source.getPropertyNames().size(), source.getProperties().size(), filename);
+    }
+
+    @Test
+    void testManagementInterface() {
+        assertEquals("9000", ccs.getValue("quarkus.management.port"));
+        assertEquals("8000", ccs.getValue("quarkus.http.port"));
+
+        ClowderConfig root = readClowderConfig("/cdappconfig.json");
+        root.metricsPort = null;
+        Map<String, ConfigValue> properties = Map.of(
+                "quarkus.management.port", ConfigValue.builder().withName("quarkus.management.port").withValue("9090").build());
+        ClowderConfigSource source = ClowderConfigSourceFactory.createConfigSource(root, new ClowderConfigSourceOptions(Map.of()),
+                properties.keySet().iterator(), properties::get);
+        assertEquals("9090", source.getValue("quarkus.management.port"));
+    }
+
+    @Test
+    void testPublicPortWithoutWebPort() {
+        ClowderConfig root = readClowderConfig("/cdappconfig.json");
+        root.webPort = null;
+        root.publicPort = 8080;
+        ClowderConfigSource source = ClowderConfigSourceFactory.createConfigSource(root, new ClowderConfigSourceOptions(Map.of()),
+                Collections.emptyIterator(), APP_PROPS_MAP::get);
+
+        assertEquals("8080", source.getValue("quarkus.http.port"));
+    }
+
+    @Test
+    void testRepeatedWarningsAreLoggedOnce() {
+        ClowderConfigSource source = configSourceWithFile("/cdappconfig.json", exposeKafkaSslConfigKeys);
+
+        for (int i = 0; i < 3; i++) {
+            assertNull(source.getValue("clowder.endpoints.unknown-api.url"));
+            assertNull(source.getValue("clowder.endpoints.other-api.url"));
+        }
+
+        // The first lookup of each key is logged, the next ones are counted
+        assertEquals(4, source.getDiagnostics().suppressed());
+    }
+
+    @Test
+    void testRawKeys() throws IOException {
+        JsonNode tree = new ObjectMapper().readTree(readFile("/cdappconfig.json"));
+        Map<String, String> raw = ClowderConfigSourceFactory.flatten(tree);
+
+        assertEquals("postgres", raw.get("clowder.raw.database.adminUsername"));
+        assertEquals("29092", raw.get("clowder.raw.kafka.brokers[0].port"));
+        assertEquals("platform-system-property", raw.get("clowder.raw.kafka.topics[2].name"));
+        assertEquals("9000", raw.get("clowder.raw.metricsPort"));
+        assertFalse(raw.containsKey("clowder.raw.kafka"));
+
+        ClowderConfig root = readClowderConfig("/cdappconfig.json");
+        ClowderConfigSource source = ClowderConfigSourceFactory.createConfigSource(root, new ClowderConfigSourceOptions(Map.of()),
+                APP_PROPS_MAP.keySet().iterator(), APP_PROPS_MAP::get, raw);
+        assertEquals("some.host", source.getValue("clowder.raw.database.hostname"));
+        assertTrue(source.getPropertyNames().contains("clowder.raw.kafka.topics[2].name"));
+        assertEquals("platform-tmp-12345", source.getProperties().get("clowder.raw.kafka.topics[0].name"));
+        assertNull(source.getValue("clowder.raw.database.unknown"));
+        // The handlers still translate the other keys
+        assertEquals("aUser", source.getValue("quarkus.datasource.username"));
+
+        // Not enabled by default
+        assertNull(ccs.getValue("clowder.raw.database.hostname"));
+
+        // The references to the raw keys are expanded and explained like the other properties
+        Map<String, ConfigValue> properties = new HashMap<>(APP_PROPS_MAP);
+        String adminUsername = "quarkus.datasource.\"admin\".username";
+        properties.put(adminUsername, ConfigValue.builder().withName(adminUsername).withValue("${clowder.raw.database.adminUsername}").build());
+        ClowderConfigSource expanding = ClowderConfigSourceFactory.createConfigSource(root, new ClowderConfigSourceOptions(Map.of()),
+                properties.keySet().iterator(), properties::get, raw);
+        assertEquals("postgres", expanding.getValue(adminUsername));
+        KeyExplanation explanation = expanding.explain(adminUsername);
+        assertEquals("postgres", explanation.value());
+        assertEquals(KeyExplanation.Origin.PROPERTY, explanation.expansions().get(0).origin());
+    }
+
+    @Test
+    void testOnlyNeededHandlersAreCreated() {
+        ClowderConfig root = readClowderConfig("/cdappconfig.json");
+        List<String> names = List.of("quarkus.datasource.username", "quarkus.http.access-log.category");
+        ClowderConfigSource source = ClowderConfigSourceFactory.createConfigSource(root, new ClowderConfigSourceOptions(Map.of()),
+                names.iterator(), APP_PROPS_MAP::get);
+
+        assertEquals(List.of("quarkus.datasource.username"), List.copyOf(source.getPropertyNames()));
+        assertEquals("aUser", source.getValue("quarkus.datasource.username"));
+        // Keys looked up by name are still translated
+        assertEquals("8000", source.getValue("quarkus.http.port"));
+        assertEquals("http://n-api.svc:8000", source.getValue("clowder.endpoints.notifications-api"));
+        // The Kafka handlers are not created
+        assertNull(source.getValue("kafka.bootstrap.servers"));
+    }
+
+    @Test
+    void testRequiredSections() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode tree = objectMapper.readTree(readFile("/cdappconfig.json"));
+        ClowderConfigSourceOptions noOptions = new ClowderConfigSourceOptions(Map.of());
+
+        Set<String> sections = ClowderConfigSourceFactory.requiredSections(tree, noOptions, List.of("quarkus.datasource.username").iterator());
+        assertTrue(sections.contains("database"));
+        assertTrue(sections.contains("endpoints"));
+        assertFalse(sections.contains("kafka"));
+
+        ClowderConfig root = ClowderConfigSourceFactory.bindSections(tree, sections);
+        assertNotNull(root.database);
+        assertNull(root.kafka);
+        assertEquals(Integer.valueOf(8000), root.webPort);
+
+        assertTrue(ClowderConfigSourceFactory.requiredSections(tree, noOptions, List.of("kafka.bootstrap.servers").iterator()).contains("kafka"));
+        assertTrue(ClowderConfigSourceFactory.requiredSections(tree, new ClowderConfigSourceOptions(Map.of(
+                ClowderConfigSourceOptions.EXPOSE_KAFKA_SSL_CONFIG_KEYS, "true")), Collections.emptyIterator()).contains("kafka"));
+
+        // Nothing to translate, no config source
+        JsonNode kafkaOnly = objectMapper.readTree("{\"kafka\": {\"brokers\": []}}");
+        assertTrue(ClowderConfigSourceFactory.requiredSections(kafkaOnly, noOptions, List.of("quarkus.http.access-log.category").iterator()).isEmpty());
+    }
+
     private static ClowderConfigSource configSourceWithFile(String filename, boolean exposeKafkaSslConfigKeys) {
+        return configSourceWithFile(filename, new ClowderConfigSourceOptions(
+                Map.of(ClowderConfigSourceOptions.EXPOSE_KAFKA_SSL_CONFIG_KEYS, String.valueOf(exposeKafkaSslConfigKeys))));
+    }
+
+    private static ClowderConfigSource configSourceWithFile(String filename, ClowderConfigSourceOptions options) {
         String configJson = readFile(filename);
 
         try {
@@ -907,13 +1835,30 @@ public class ConfigSourceTest {
             objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
             ClowderConfig root = objectMapper.readValue(configJson, ClowderConfig.class);
 
-            return new ClowderConfigSource(root, new HashMap<>(APP_PROPS_MAP), loadPropertyHandlers(root, exposeKafkaSslConfigKeys));
+            return new ClowderConfigSource(root, new HashMap<>(APP_PROPS_MAP), loadPropertyHandlers(root, options));
         } catch (JsonProcessingException var3) {
             fail("File '" + filename + "' not found!");
             return null;
         }
     }
 
+    private static ClowderConfig readClowderConfig(String filename) {
+        try {
+            ObjectMapper objectMapper = new ObjectMapper();
+            objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+            return objectMapper.readValue(readFile(filename), ClowderConfig.class);
+        } catch (JsonProcessingException e) {
+            fail("File '" + filename + "' can't be parsed", e);
+            return null;
+        }
+    }
+
+    private static long countKafkaCertFiles() throws IOException {
+        try (Stream<Path> files = Files.list(SecretDirectory.getDirectory())) {
+            return files.filter(file -> file.getFileName().toString().startsWith("kafka-cacert")).count();
+        }
+    }
+
     private static String readFile(String filename) {
         InputStream is = ConfigSourceTest.class.getResourceAsStream(filename);
 
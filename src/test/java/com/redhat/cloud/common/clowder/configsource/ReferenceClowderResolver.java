@@ -0,0 +1,84 @@
+package com.redhat.cloud.common.clowder.configsource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * A deliberately naive resolver for the keys generated by {@link SyntheticClowderConfig}, written
+ * from the behavior of the handlers before any lookup was optimized: every key is resolved with
+ * linear scans of the Clowder config. The scaling suite checks that the config source resolves
+ * every key the same way.
+ */
+public class ReferenceClowderResolver {
+
+    private final ClowderConfig root;
+    private final Map<String, String> properties;
+
+    public ReferenceClowderResolver(ClowderConfig root, Map<String, String> properties) {
+        this.root = root;
+        this.properties = properties;
+    }
+
+    public String resolve(String key) {
+        if (key.equals("quarkus.http.port")) {
+            return String.valueOf(root.webPort);
+        }
+        if (key.equals("kafka.bootstrap.servers") || key.equals("camel.component.kafka.brokers")) {
+            return root.kafka.brokers.stream()
+                    .map(broker -> broker.hostname + ":" + broker.port)
+                    .collect(Collectors.joining(","));
+        }
+        if (key.startsWith("mp.messaging.") && key.endsWith(".topic")) {
+            String requested = properties.get(key);
+            for (TopicConfig topic : root.kafka.topics) {
+                if (topic.requestedName.equals(requested)) {
+                    return topic.name;
+                }
+            }
+            return requested;
+        }
+        if (key.startsWith("clowder.endpoints.")) {
+            return endpointUrl(root.endpoints, key.substring("clowder.endpoints.".length()));
+        }
+        if (key.startsWith("clowder.private-endpoints.")) {
+            return endpointUrl(root.privateEndpoints, key.substring("clowder.private-endpoints.".length()));
+        }
+
+        return switch (key) {
+            case "quarkus.datasource.username" -> root.database.username;
+            case "quarkus.datasource.password" -> root.database.password;
+            case "quarkus.datasource.jdbc.url" -> {
+                String url = "jdbc:postgresql://" + root.database.hostname + ":" + root.database.port + "/" + root.database.name;
+                String existing = properties.get(key);
+                String params = existing.contains("?") ? existing.substring(existing.indexOf('?') + 1) : "";
+                if (!"disable".equals(root.database.sslMode)) {
+                    params += (params.isEmpty() ? "" : "&") + "sslmode=" + root.database.sslMode;
+                }
+                yield params.isEmpty() ? url : url + "?" + params;
+            }
+            case "quarkus.datasource.reactive.url" -> "postgresql://" + root.database.hostname + ":" + root.database.port + "/" + root.database.name;
+            case "quarkus.redis.hosts" -> (root.inMemoryDb.password != null && !root.inMemoryDb.password.isBlank() ? "rediss://" : "redis://")
+                    + root.inMemoryDb.hostname + ":" + root.inMemoryDb.port;
+            case "quarkus.unleash.url" -> root.featureFlags.scheme + "://" + root.featureFlags.hostname
+                    + (root.featureFlags.port != null ? ":" + root.featureFlags.port : "") + "/api";
+            case "quarkus.unleash.token" -> root.featureFlags.clientAccessToken;
+            case "quarkus.log.cloudwatch.access-key-id" -> root.logging.cloudwatch.accessKeyId;
+            case "quarkus.log.cloudwatch.log-group" -> root.logging.cloudwatch.logGroup;
+            default -> throw new IllegalArgumentException("No reference resolution for " + key);
+        };
+    }
+
+    private static String endpointUrl(List<? extends EndpointConfig> endpoints, String requested) {
+        String name = requested.endsWith(".url") ? requested.substring(0, requested.length() - ".url".length()) : requested;
+        for (EndpointConfig endpoint : endpoints) {
+            if ((endpoint.app + "-" + endpoint.name).equals(name)) {
+                if (endpoint.tlsPort != null && endpoint.tlsPort != 0) {
+                    return "https://" + endpoint.hostname + ":" + endpoint.tlsPort;
+                }
+                return "http://" + endpoint.hostname + ":" + endpoint.port;
+            }
+        }
+        return null;
+    }
+}
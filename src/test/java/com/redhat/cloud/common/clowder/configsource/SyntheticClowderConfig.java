@@ -0,0 +1,201 @@
+package com.redhat.cloud.common.clowder.configsource;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.smallrye.config.ConfigValue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Generates Clowder configs of any size, together with the application properties that
+ * reference them, for the tests that need more than the small cdappconfig*.json fixtures.
+ */
+public class SyntheticClowderConfig {
+
+    public static final String CDAPPCONFIG_FILE = "cdappconfig.json";
+    public static final String APPLICATION_PROPERTIES_FILE = "application.properties";
+
+    private final ClowderConfig clowderConfig;
+    private final Map<String, String> rawProperties;
+    private final Map<String, ConfigValue> properties;
+    private final List<String> clowderKeys;
+
+    private SyntheticClowderConfig(ClowderConfig clowderConfig, Map<String, String> rawProperties, Map<String, ConfigValue> properties, List<String> clowderKeys) {
+        this.clowderConfig = clowderConfig;
+        this.rawProperties = rawProperties;
+        this.properties = properties;
+        this.clowderKeys = clowderKeys;
+    }
+
+    /**
+     * @param endpoints        number of public endpoints
+     * @param privateEndpoints number of private endpoints
+     * @param topics           number of Kafka topics, each one consumed by an incoming channel
+     * @param brokers          number of Kafka brokers
+     * @param totalProperties  number of application properties, padded with keys no handler is interested in
+     */
+    public static SyntheticClowderConfig generate(int endpoints, int privateEndpoints, int topics, int brokers, int totalProperties) {
+        ClowderConfig root = new ClowderConfig();
+        Map<String, String> props = new HashMap<>();
+        List<String> keys = new ArrayList<>();
+
+        root.webPort = 8000;
+        root.publicPort = 8000;
+        root.privatePort = 10000;
+        root.metricsPort = 9000;
+        root.metricsPath = "/metrics";
+        props.put("quarkus.http.port", "8080");
+        keys.add("quarkus.http.port");
+
+        root.database = new DatabaseConfig();
+        root.database.hostname = "db.svc";
+        root.database.port = 5432;
+        root.database.name = "synthetic";
+        root.database.username = "user";
+        root.database.password = "secret";
+        root.database.sslMode = "disable";
+        props.put("quarkus.datasource.db-kind", "postgresql");
+        props.put("quarkus.datasource.jdbc.url", "jdbc:postgresql://127.0.0.1:5432/synthetic?ApplicationName=synthetic");
+        props.put("quarkus.datasource.reactive.url", "postgresql://127.0.0.1:5432/synthetic");
+        keys.add("quarkus.datasource.username");
+        keys.add("quarkus.datasource.password");
+        keys.add("quarkus.datasource.jdbc.url");
+        keys.add("quarkus.datasource.reactive.url");
+
+        root.inMemoryDb = new InMemoryDb();
+        root.inMemoryDb.hostname = "redis.svc";
+        root.inMemoryDb.port = 6379;
+        keys.add("quarkus.redis.hosts");
+
+        root.featureFlags = new FeatureFlagsConfig();
+        root.featureFlags.hostname = "unleash.svc";
+        root.featureFlags.port = 4242;
+        root.featureFlags.scheme = "http";
+        root.featureFlags.clientAccessToken = "token";
+        keys.add("quarkus.unleash.url");
+        keys.add("quarkus.unleash.token");
+
+        root.logging = new LoggingConfig();
+        root.logging.type = "cloudwatch";
+        root.logging.cloudwatch = new CloudwatchConfig();
+        root.logging.cloudwatch.accessKeyId = "key-id";
+        root.logging.cloudwatch.secretAccessKey = "secret";
+        root.logging.cloudwatch.region = "eu-central-1";
+        root.logging.cloudwatch.logGroup = "synthetic";
+        props.put("quarkus.log.cloudwatch.log-stream-name", "synthetic");
+        keys.add("quarkus.log.cloudwatch.access-key-id");
+        keys.add("quarkus.log.cloudwatch.log-group");
+
+        root.endpoints = new ArrayList<>();
+        for (int i = 0; i < endpoints; i++) {
+            EndpointConfig endpoint = new EndpointConfig();
+            endpoint.app = "app-" + i;
+            endpoint.name = "service";
+            endpoint.hostname = "app-" + i + "-service.svc";
+            endpoint.port = 8000;
+            if (i % 10 == 9) {
+                endpoint.tlsPort = 8443;
+            }
+            root.endpoints.add(endpoint);
+            props.put("app-" + i + ".url", "${clowder.endpoints.app-" + i + "-service.url:http://localhost:8080}");
+            keys.add("clowder.endpoints.app-" + i + "-service.url");
+        }
+
+        root.privateEndpoints = new ArrayList<>();
+        for (int i = 0; i < privateEndpoints; i++) {
+            PrivateEndpointConfig endpoint = new PrivateEndpointConfig();
+            endpoint.app = "private-app-" + i;
+            endpoint.name = "api";
+            endpoint.hostname = "private-app-" + i + "-api.svc";
+            endpoint.port = 10000;
+            root.privateEndpoints.add(endpoint);
+            keys.add("clowder.private-endpoints.private-app-" + i + "-api.url");
+        }
+
+        root.kafka = new KafkaConfig();
+        root.kafka.brokers = new ArrayList<>();
+        for (int i = 0; i < brokers; i++) {
+            BrokerConfig broker = new BrokerConfig();
+            broker.hostname = "broker-" + i + ".kafka.svc";
+            broker.port = 9092;
+            root.kafka.brokers.add(broker);
+        }
+        props.put("kafka.bootstrap.servers", "localhost:9092");
+        keys.add("kafka.bootstrap.servers");
+        keys.add("camel.component.kafka.brokers");
+
+        root.kafka.topics = new ArrayList<>();
+        for (int i = 0; i < topics; i++) {
+            TopicConfig topic = new TopicConfig();
+            topic.requestedName = "topic-" + i;
+            topic.name = "topic-" + i + "-ephemeral";
+            root.kafka.topics.add(topic);
+            props.put("mp.messaging.incoming.channel-" + i + ".connector", "smallrye-kafka");
+            props.put("mp.messaging.incoming.channel-" + i + ".topic", "topic-" + i);
+            props.put("mp.messaging.incoming.channel-" + i + ".group.id", "synthetic");
+            keys.add("mp.messaging.incoming.channel-" + i + ".topic");
+        }
+
+        for (int i = 0; props.size() < totalProperties; i++) {
+            props.put("app.setting-" + i, "value-" + i);
+        }
+
+        Map<String, ConfigValue> properties = new HashMap<>();
+        props.forEach((k, v) -> properties.put(k, new ConfigValue.ConfigValueBuilder()
+                .withName(k)
+                .withValue(v)
+                .withConfigSourceName("PropertiesConfigSource[source=application.properties]")
+                .withConfigSourceOrdinal(250)
+                .build()));
+
+        return new SyntheticClowderConfig(root, props, properties, keys);
+    }
+
+    public ClowderConfig getClowderConfig() {
+        return clowderConfig;
+    }
+
+    public Map<String, String> getRawProperties() {
+        return rawProperties;
+    }
+
+    /**
+     * The application properties, as the factory would collect them from the other config sources.
+     */
+    public Map<String, ConfigValue> getProperties() {
+        return properties;
+    }
+
+    /**
+     * Keys that are resolved from the Clowder config, at least one per handler family and per
+     * generated endpoint and topic.
+     */
+    public List<String> getClowderKeys() {
+        return clowderKeys;
+    }
+
+    public String toJson() throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        return objectMapper.writeValueAsString(clowderConfig);
+    }
+
+    /**
+     * Writes the {@value #CDAPPCONFIG_FILE} and {@value #APPLICATION_PROPERTIES_FILE} files to the directory.
+     */
+    public void writeTo(Path directory) throws IOException {
+        Files.writeString(directory.resolve(CDAPPCONFIG_FILE), toJson());
+
+        StringBuilder sb = new StringBuilder();
+        new TreeMap<>(rawProperties).forEach((key, value) -> sb.append(key).append('=').append(value).append('\n'));
+        Files.writeString(directory.resolve(APPLICATION_PROPERTIES_FILE), sb);
+    }
+}
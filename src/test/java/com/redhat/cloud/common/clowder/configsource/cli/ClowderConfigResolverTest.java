@@ -0,0 +1,122 @@
+package com.redhat.cloud.common.clowder.configsource.cli;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ClowderConfigResolverTest {
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    @Test
+    void testResolve() throws Exception {
+        int exitCode = run(resource("/cdappconfig.json"), resource("/application.properties"));
+        assertEquals(ClowderConfigResolver.EXIT_OK, exitCode, err.toString(UTF_8));
+
+        Properties resolved = new Properties();
+        resolved.load(new StringReader(out.toString(UTF_8)));
+        assertEquals("8000", resolved.getProperty("quarkus.http.port"));
+        assertEquals("ephemeral-host.svc:29092", resolved.getProperty("kafka.bootstrap.servers"));
+        assertEquals("platform-tmp-12345", resolved.getProperty("mp.messaging.incoming.ingress.topic"));
+        assertEquals("aUser", resolved.getProperty("quarkus.datasource.username"));
+        // Not handled, kept as is
+        assertEquals("combined", resolved.getProperty("quarkus.http.access-log.pattern"));
+        assertEquals("${NO_EXIST}", resolved.getProperty("mp.messaging.outgoing.system.not.exist.topic"));
+    }
+
+    @Test
+    void testSecretFilesLeftToRuntime() throws Exception {
+        int exitCode = run(resource("/cdappconfig_verify-full_valid.json"), resource("/application.properties"));
+        assertEquals(ClowderConfigResolver.EXIT_OK, exitCode, err.toString(UTF_8));
+
+        // The sslrootcert file embedded in the URLs is deleted when the resolver exits
+        String output = out.toString(UTF_8);
+        assertFalse(output.contains("clowder-config-source-"), output);
+        Properties resolved = new Properties();
+        resolved.load(new StringReader(output));
+        assertEquals("jdbc:postgresql://127.0.0.1:5432/notifications?ApplicationName=test-app", resolved.getProperty("quarkus.datasource.jdbc.url"));
+        assertEquals("aUser", resolved.getProperty("quarkus.datasource.username"));
+    }
+
+    @Test
+    void testOutputFileAndTimings() throws Exception {
+        Path output = Files.createTempFile("resolved", ".properties");
+        try {
+            int exitCode = run("--timings", "--output", output.toString(), resource("/cdappconfig.json"), resource("/application.properties"));
+            assertEquals(ClowderConfigResolver.EXIT_OK, exitCode, err.toString(UTF_8));
+
+            assertEquals("", out.toString(UTF_8));
+            assertTrue(Files.readString(output).contains("quarkus.http.port=8000\n"));
+            String timings = err.toString(UTF_8);
+            assertTrue(timings.startsWith("TIME (us)"));
+            assertTrue(timings.contains(" quarkus.datasource.jdbc.url\n"));
+        } finally {
+            Files.delete(output);
+        }
+    }
+
+    @Test
+    void testDiff() throws Exception {
+        int exitCode = run("--diff", resource("/cdappconfig2.json"), resource("/cdappconfig.json"), resource("/application.properties"));
+        assertEquals(ClowderConfigResolver.EXIT_OK, exitCode, err.toString(UTF_8));
+
+        String diff = err.toString(UTF_8);
+        assertTrue(diff.contains("kafka.bootstrap.servers: ephemeral-host.svc:29092 -> ephemeral-host.svc:29092,other-host.svc:39092\n"));
+        assertFalse(diff.contains("quarkus.http.access-log.pattern"));
+        // Secrets are not printed
+        assertTrue(diff.contains("quarkus.log.cloudwatch.access-key-secret: <redacted> -> <redacted>\n"));
+        assertFalse(diff.contains("very-secret"));
+    }
+
+    @Test
+    void testOptionsFromSystemProperties() throws Exception {
+        // Like at startup, the options don't have to be in application.properties
+        System.setProperty("feature-flags.unleash-fast-startup.enabled", "true");
+        try {
+            int exitCode = run(resource("/cdappconfig.json"), resource("/application.properties"));
+            assertEquals(ClowderConfigResolver.EXIT_OK, exitCode, err.toString(UTF_8));
+        } finally {
+            System.clearProperty("feature-flags.unleash-fast-startup.enabled");
+        }
+
+        Properties resolved = new Properties();
+        resolved.load(new StringReader(out.toString(UTF_8)));
+        assertEquals("false", resolved.getProperty("quarkus.unleash.synchronous-fetch-on-initialisation"));
+    }
+
+    @Test
+    void testUsage() throws Exception {
+        assertEquals(ClowderConfigResolver.EXIT_USAGE, run(resource("/cdappconfig.json")));
+        assertEquals(ClowderConfigResolver.EXIT_USAGE, run("--unknown", resource("/cdappconfig.json"), resource("/application.properties")));
+        assertEquals(ClowderConfigResolver.EXIT_USAGE, run("/does/not/exist.json", resource("/application.properties")));
+    }
+
+    @Test
+    void testRender() {
+        assertEquals("a\\ key=a value \\= 1\\:2\nb=\\ leading\\nnew line\n",
+                ClowderConfigResolver.render(new TreeMap<>(Map.of("a key", "a value = 1:2", "b", " leading\nnew line"))));
+    }
+
+    private int run(String... args) {
+        return ClowderConfigResolver.run(args, new PrintStream(out, true, UTF_8), new PrintStream(err, true, UTF_8));
+    }
+
+    private static String resource(String name) throws URISyntaxException {
+        return Path.of(ClowderConfigResolverTest.class.getResource(name).toURI()).toString();
+    }
+}
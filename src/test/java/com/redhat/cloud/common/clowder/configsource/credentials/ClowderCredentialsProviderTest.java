@@ -0,0 +1,95 @@
+package com.redhat.cloud.common.clowder.configsource.credentials;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+
+import static io.quarkus.credentials.CredentialsProvider.PASSWORD_PROPERTY_NAME;
+import static io.quarkus.credentials.CredentialsProvider.USER_PROPERTY_NAME;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ClowderCredentialsProviderTest {
+
+    private Path configFile;
+    private ClowderCredentialsProvider provider;
+
+    @BeforeEach
+    void setup() throws IOException {
+        configFile = Files.createTempFile("cdappconfig", ".json");
+        provider = new ClowderCredentialsProvider();
+        provider.configFile = configFile.toString();
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        Files.deleteIfExists(configFile);
+    }
+
+    @Test
+    void testDatabaseCredentials() throws IOException {
+        copyResource("/cdappconfig.json");
+        assertEquals(Map.of(USER_PROPERTY_NAME, "aUser", PASSWORD_PROPERTY_NAME, "secret"),
+                provider.getCredentials(ClowderCredentialsProvider.DATABASE));
+    }
+
+    @Test
+    void testRotatedCredentials() throws IOException {
+        copyResource("/cdappconfig.json");
+        assertEquals("secret", provider.getCredentials(ClowderCredentialsProvider.DATABASE).get(PASSWORD_PROPERTY_NAME));
+
+        replaceContent(Files.readString(configFile).replace("\"secret\"", "\"rotated\""));
+        assertEquals("rotated", provider.getCredentials(ClowderCredentialsProvider.DATABASE).get(PASSWORD_PROPERTY_NAME));
+
+        // A broken file keeps the previous credentials
+        replaceContent("{ \"database\": ");
+        assertEquals("rotated", provider.getCredentials(ClowderCredentialsProvider.DATABASE).get(PASSWORD_PROPERTY_NAME));
+    }
+
+    @Test
+    void testInMemoryDbCredentials() throws IOException {
+        copyResource("/cdappconfig2.json");
+        assertEquals(Map.of(PASSWORD_PROPERTY_NAME, "secret"), provider.getCredentials(ClowderCredentialsProvider.IN_MEMORY_DB));
+    }
+
+    @Test
+    void testKafkaSaslCredentials() throws IOException {
+        copyResource("/cdappconfig_kafka_sasl_scram_authtype.json");
+        assertEquals(Map.of(USER_PROPERTY_NAME, "john", PASSWORD_PROPERTY_NAME, "doe"),
+                provider.getCredentials(ClowderCredentialsProvider.KAFKA_SASL));
+    }
+
+    @Test
+    void testMissingCredentials() throws IOException {
+        copyResource("/cdappconfig3.json");
+        assertThrows(IllegalStateException.class, () -> provider.getCredentials(ClowderCredentialsProvider.DATABASE));
+        assertThrows(IllegalStateException.class, () -> provider.getCredentials(ClowderCredentialsProvider.KAFKA_SASL));
+        assertThrows(IllegalArgumentException.class, () -> provider.getCredentials("unknown"));
+
+        // Without a config file there are no credentials
+        ClowderCredentialsProvider noConfig = new ClowderCredentialsProvider();
+        noConfig.configFile = configFile.resolveSibling("does-not-exist.json").toString();
+        assertThrows(IllegalStateException.class, () -> noConfig.getCredentials(ClowderCredentialsProvider.DATABASE));
+    }
+
+    private void copyResource(String resource) throws IOException {
+        try (InputStream is = ClowderCredentialsProviderTest.class.getResourceAsStream(resource)) {
+            Files.copy(is, configFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void replaceContent(String content) throws IOException {
+        // The modification time may have a coarse granularity, make sure it changes
+        FileTime previous = Files.getLastModifiedTime(configFile);
+        Files.writeString(configFile, content);
+        Files.setLastModifiedTime(configFile, FileTime.fromMillis(previous.toMillis() + 10_000));
+    }
+}
@@ -0,0 +1,37 @@
+package com.redhat.cloud.common.clowder.configsource.stress;
+
+import com.redhat.cloud.common.clowder.configsource.ClowderConfigSource;
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.ZZ_Result;
+
+import static com.redhat.cloud.common.clowder.configsource.stress.StressFixtures.BOOTSTRAP_SERVERS;
+import static com.redhat.cloud.common.clowder.configsource.stress.StressFixtures.BOOTSTRAP_SERVERS_KEY;
+import static com.redhat.cloud.common.clowder.configsource.stress.StressFixtures.TOPIC;
+import static com.redhat.cloud.common.clowder.configsource.stress.StressFixtures.TOPIC_KEY;
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+/**
+ * Two threads reading different keys of the same config source both get the translated values.
+ */
+@JCStressTest
+@Outcome(id = "true, true", expect = ACCEPTABLE, desc = "Both readers get the translated value")
+@Outcome(expect = FORBIDDEN, desc = "A reader got the existing value or no value")
+@State
+public class GetValueStressTest {
+
+    private final ClowderConfigSource source = StressFixtures.configSource();
+
+    @Actor
+    public void bootstrapServers(ZZ_Result r) {
+        r.r1 = BOOTSTRAP_SERVERS.equals(source.getValue(BOOTSTRAP_SERVERS_KEY));
+    }
+
+    @Actor
+    public void topic(ZZ_Result r) {
+        r.r2 = TOPIC.equals(source.getValue(TOPIC_KEY));
+    }
+}
@@ -0,0 +1,48 @@
+package com.redhat.cloud.common.clowder.configsource.stress;
+
+import com.redhat.cloud.common.clowder.configsource.ClowderConfigSource;
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.ZZ_Result;
+
+import java.util.ConcurrentModificationException;
+
+import static com.redhat.cloud.common.clowder.configsource.stress.StressFixtures.ENDPOINT_URL;
+import static com.redhat.cloud.common.clowder.configsource.stress.StressFixtures.ENDPOINT_URL_KEY;
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+/**
+ * Enumerating the property names while another thread reads values, including a key looked up by
+ * name that is not part of the names, neither changes the names nor fails the enumeration.
+ */
+@JCStressTest
+@Outcome(id = "true, true", expect = ACCEPTABLE, desc = "The enumeration and the lookup are consistent")
+@Outcome(expect = FORBIDDEN, desc = "The names changed, the enumeration failed or the lookup was wrong")
+@State
+public class PropertyNamesStressTest {
+
+    private final ClowderConfigSource source = StressFixtures.configSource();
+
+    @Actor
+    public void enumerate(ZZ_Result r) {
+        try {
+            int count = 0;
+            for (String name : source.getPropertyNames()) {
+                if (name != null) {
+                    count++;
+                }
+            }
+            r.r1 = count == StressFixtures.propertyCount();
+        } catch (ConcurrentModificationException e) {
+            r.r1 = false;
+        }
+    }
+
+    @Actor
+    public void lookUp(ZZ_Result r) {
+        r.r2 = ENDPOINT_URL.equals(source.getValue(ENDPOINT_URL_KEY));
+    }
+}
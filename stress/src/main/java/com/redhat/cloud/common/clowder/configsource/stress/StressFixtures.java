@@ -0,0 +1,101 @@
+package com.redhat.cloud.common.clowder.configsource.stress;
+
+import com.redhat.cloud.common.clowder.configsource.BrokerConfig;
+import com.redhat.cloud.common.clowder.configsource.ClowderConfig;
+import com.redhat.cloud.common.clowder.configsource.ClowderConfigSource;
+import com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceFactory;
+import com.redhat.cloud.common.clowder.configsource.ClowderConfigSourceOptions;
+import com.redhat.cloud.common.clowder.configsource.EndpointConfig;
+import com.redhat.cloud.common.clowder.configsource.KafkaConfig;
+import com.redhat.cloud.common.clowder.configsource.TopicConfig;
+import io.smallrye.config.ConfigValue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The Clowder config shared by the stress tests: one broker, one topic and one endpoint using TLS.
+ * Each test state builds its own config source from it, like the factory does at startup.
+ */
+final class StressFixtures {
+
+    static final String BOOTSTRAP_SERVERS_KEY = "kafka.bootstrap.servers";
+    static final String BOOTSTRAP_SERVERS = "ephemeral-host.svc:29092";
+    static final String TOPIC_KEY = "mp.messaging.incoming.ingress.topic";
+    static final String TOPIC = "platform-tmp-12345";
+    static final String ENDPOINT_URL_KEY = "clowder.endpoints.notifications-api.url";
+    static final String ENDPOINT_URL = "https://n-api.svc:9999";
+    static final String TRUST_STORE_PATH_KEY = "clowder.endpoints.notifications-api.trust-store-path";
+    static final String TRUST_STORE_PASSWORD_KEY = "clowder.endpoints.notifications-api.trust-store-password";
+
+    private static final Map<String, ConfigValue> PROPERTIES = Map.of(
+            BOOTSTRAP_SERVERS_KEY, value(BOOTSTRAP_SERVERS_KEY, "localhost:9092"),
+            TOPIC_KEY, value(TOPIC_KEY, "platform.notifications.ingress"));
+    private static final ClowderConfig ROOT = clowderConfig();
+
+    private StressFixtures() {
+
+    }
+
+    static ClowderConfigSource configSource() {
+        return ClowderConfigSourceFactory.createConfigSource(ROOT, new ClowderConfigSourceOptions(Map.of()),
+                PROPERTIES.keySet().iterator(), PROPERTIES::get);
+    }
+
+    static int propertyCount() {
+        return PROPERTIES.size();
+    }
+
+    private static ConfigValue value(String name, String value) {
+        return ConfigValue.builder()
+                .withName(name)
+                .withValue(value)
+                .withConfigSourceName("PropertiesConfigSource[source=application.properties]")
+                .withConfigSourceOrdinal(250)
+                .build();
+    }
+
+    private static ClowderConfig clowderConfig() {
+        BrokerConfig broker = new BrokerConfig();
+        broker.hostname = "ephemeral-host.svc";
+        broker.port = 29092;
+
+        TopicConfig topic = new TopicConfig();
+        topic.requestedName = "platform.notifications.ingress";
+        topic.name = TOPIC;
+
+        KafkaConfig kafka = new KafkaConfig();
+        kafka.brokers = List.of(broker);
+        kafka.topics = List.of(topic);
+
+        EndpointConfig endpoint = new EndpointConfig();
+        endpoint.app = "notifications";
+        endpoint.name = "api";
+        endpoint.hostname = "n-api.svc";
+        endpoint.tlsPort = 9999;
+
+        ClowderConfig root = new ClowderConfig();
+        root.kafka = kafka;
+        root.endpoints = List.of(endpoint);
+        root.webPort = 8000;
+        root.tlsCAPath = writeCaFile().toString();
+        return root;
+    }
+
+    private static Path writeCaFile() {
+        try (InputStream in = StressFixtures.class.getResourceAsStream("/cert01.pem")) {
+            Path file = Files.createTempFile("clowder-stress-ca", ".pem");
+            file.toFile().deleteOnExit();
+            Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
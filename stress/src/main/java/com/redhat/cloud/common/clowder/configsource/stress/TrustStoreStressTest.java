@@ -0,0 +1,52 @@
+package com.redhat.cloud.common.clowder.configsource.stress;
+
+import com.redhat.cloud.common.clowder.configsource.ClowderConfigSource;
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.ZZ_Result;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.redhat.cloud.common.clowder.configsource.stress.StressFixtures.TRUST_STORE_PASSWORD_KEY;
+import static com.redhat.cloud.common.clowder.configsource.stress.StressFixtures.TRUST_STORE_PATH_KEY;
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+/**
+ * The trust store is built lazily by the first reader. Concurrent readers of its path and password
+ * must see the same, complete trust store and never a half-initialized one.
+ */
+@JCStressTest
+@Outcome(id = "true, true", expect = ACCEPTABLE, desc = "Both readers see the same trust store")
+@Outcome(id = "false, .*", expect = FORBIDDEN, desc = "A reader saw no trust store")
+@Outcome(id = "true, false", expect = FORBIDDEN, desc = "The readers saw different trust stores")
+@State
+public class TrustStoreStressTest {
+
+    private final ClowderConfigSource source = StressFixtures.configSource();
+
+    private String path1;
+    private String path2;
+    private String password;
+
+    @Actor
+    public void readPath() {
+        path1 = source.getValue(TRUST_STORE_PATH_KEY);
+    }
+
+    @Actor
+    public void readPasswordThenPath() {
+        password = source.getValue(TRUST_STORE_PASSWORD_KEY);
+        path2 = source.getValue(TRUST_STORE_PATH_KEY);
+    }
+
+    @Arbiter
+    public void arbiter(ZZ_Result r) {
+        r.r1 = path1 != null && password != null && Files.exists(Path.of(path1));
+        r.r2 = r.r1 && path1.equals(path2) && password.equals(source.getValue(TRUST_STORE_PASSWORD_KEY));
+    }
+}
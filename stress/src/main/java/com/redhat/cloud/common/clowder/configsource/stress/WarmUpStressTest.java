@@ -0,0 +1,46 @@
+package com.redhat.cloud.common.clowder.configsource.stress;
+
+import com.redhat.cloud.common.clowder.configsource.ClowderConfigSource;
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.ZZ_Result;
+
+import static com.redhat.cloud.common.clowder.configsource.stress.StressFixtures.TRUST_STORE_PATH_KEY;
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+/**
+ * A reader racing with the warm-up either waits for the trust store the warm-up builds or builds
+ * the one the warm-up then waits for: both see the same complete trust store.
+ */
+@JCStressTest
+@Outcome(id = "true, true", expect = ACCEPTABLE, desc = "The reader and the warm-up share the trust store")
+@Outcome(expect = FORBIDDEN, desc = "The warm-up failed or the reader saw another trust store")
+@State
+public class WarmUpStressTest {
+
+    private final ClowderConfigSource source = StressFixtures.configSource();
+
+    private boolean warmedUp;
+    private String path;
+
+    @Actor
+    public void warmUp() {
+        source.warmUp(Runnable::run).join();
+        warmedUp = true;
+    }
+
+    @Actor
+    public void read() {
+        path = source.getValue(TRUST_STORE_PATH_KEY);
+    }
+
+    @Arbiter
+    public void arbiter(ZZ_Result r) {
+        r.r1 = warmedUp && path != null;
+        r.r2 = r.r1 && path.equals(source.getTrustStorePath());
+    }
+}